@@ -0,0 +1,78 @@
+package com.example.demo.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.UserOrder;
+
+/**
+ * The in-memory cart operations behind {@code /api/cart} and
+ * {@code /api/order/submit}, at cart sizes of 1, 50 and 5000 distinct lines.
+ * Changing a line looks it up by a linear scan, so {@code changeLastLine}
+ * shows how that scan grows with the cart.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBenchmark {
+
+	@Param({"1", "50", "5000"})
+	public int lines;
+
+	private Item[] items;
+	private Cart cart;
+	private Item last;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		items = DomainFixtures.items(lines);
+		cart = DomainFixtures.cart(items);
+		last = items[items.length - 1];
+	}
+
+	/**
+	 * Builds a cart of {@code lines} lines from empty, one addItem per line.
+	 */
+	@Benchmark
+	public Cart fillCart() {
+		return DomainFixtures.cart(items);
+	}
+
+	/**
+	 * One addToCart and one removeFromCart of the line found last, leaving the
+	 * cart as it was.
+	 */
+	@Benchmark
+	public Cart changeLastLine() {
+		cart.addItem(last, 1);
+		cart.removeItem(last, 1);
+		return cart;
+	}
+
+	@Benchmark
+	public UserOrder createOrderFromCart() {
+		return UserOrder.createFromCart(cart);
+	}
+
+	@Benchmark
+	public boolean recalculateTotal() {
+		return cart.recalculateTotal();
+	}
+}
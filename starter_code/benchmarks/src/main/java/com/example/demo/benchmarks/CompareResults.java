@@ -0,0 +1,82 @@
+package com.example.demo.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Prints two JMH JSON result files side by side: the score and, when the run
+ * used {@code -prof gc}, the bytes allocated per operation, with the change
+ * from the first file to the second. Benchmarks are matched by name and
+ * parameters; ones present in only one file are listed with a blank side.
+ * <p>
+ * {@code mvn exec:exec@compare -Dcompare.before=before.json -Dcompare.after=after.json}
+ */
+public final class CompareResults {
+
+	private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+	private CompareResults() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("usage: CompareResults <before.json> <after.json>");
+			System.exit(2);
+		}
+		ObjectMapper objectMapper = new ObjectMapper();
+		Map<String, JsonNode> before = byKey(objectMapper.readTree(new File(args[0])));
+		Map<String, JsonNode> after = byKey(objectMapper.readTree(new File(args[1])));
+		Map<String, JsonNode> keys = new LinkedHashMap<>(before);
+		after.forEach(keys::putIfAbsent);
+
+		System.out.printf("%-60s %18s %18s %8s %12s %12s %8s%n",
+				"benchmark", "before", "after", "change", "B/op before", "B/op after", "change");
+		for (String key : keys.keySet()) {
+			JsonNode old = before.get(key);
+			JsonNode current = after.get(key);
+			double oldScore = score(old == null ? null : old.path("primaryMetric"));
+			double newScore = score(current == null ? null : current.path("primaryMetric"));
+			double oldBytes = score(old == null ? null : old.path("secondaryMetrics").path(ALLOCATION));
+			double newBytes = score(current == null ? null : current.path("secondaryMetrics").path(ALLOCATION));
+			String unit = (current != null ? current : old).path("primaryMetric").path("scoreUnit").asText();
+			System.out.printf("%-60s %18s %18s %8s %12s %12s %8s%n", key,
+					format(oldScore, unit), format(newScore, unit), change(oldScore, newScore),
+					format(oldBytes, ""), format(newBytes, ""), change(oldBytes, newBytes));
+		}
+	}
+
+	private static Map<String, JsonNode> byKey(JsonNode results) {
+		Map<String, JsonNode> byKey = new LinkedHashMap<>();
+		for (JsonNode result : results) {
+			String name = result.path("benchmark").asText();
+			StringBuilder key = new StringBuilder(name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1));
+			result.path("params").fields().forEachRemaining(param ->
+					key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+			byKey.put(key.toString(), result);
+		}
+		return byKey;
+	}
+
+	private static double score(JsonNode metric) {
+		return metric == null || !metric.has("score") ? Double.NaN : metric.path("score").asDouble();
+	}
+
+	private static String format(double value, String unit) {
+		if (Double.isNaN(value)) {
+			return "";
+		}
+		return unit.isEmpty() ? String.format("%.0f", value) : String.format("%.3f %s", value, unit);
+	}
+
+	private static String change(double before, double after) {
+		if (Double.isNaN(before) || Double.isNaN(after) || before == 0) {
+			return "";
+		}
+		return String.format("%+.1f%%", (after - before) / before * 100);
+	}
+}
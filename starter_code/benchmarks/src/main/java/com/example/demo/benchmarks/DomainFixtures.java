@@ -0,0 +1,52 @@
+package com.example.demo.benchmarks;
+
+import java.math.BigDecimal;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+
+/**
+ * Detached entities shaped like the ones the endpoints handle, for benchmarks
+ * that do not start the application.
+ */
+final class DomainFixtures {
+
+	private DomainFixtures() {
+	}
+
+	/**
+	 * Items with distinct ids; entity equality is by id, so items without one
+	 * would all land on the same cart line.
+	 */
+	static Item[] items(int count) {
+		Item[] items = new Item[count];
+		for (int i = 0; i < count; i++) {
+			Item item = new Item();
+			item.setId((long) i + 1);
+			item.setSku("BENCH-" + (i + 1));
+			item.setName("Benchmark item " + (i + 1));
+			item.setPrice(BigDecimal.valueOf(199 + i % 1000, 2));
+			item.setDescription("An item used by the benchmarks");
+			items[i] = item;
+		}
+		return items;
+	}
+
+	/**
+	 * A cart owned by a user, holding one line of quantity 2 per item.
+	 */
+	static Cart cart(Item[] items) {
+		User user = new User();
+		user.setId(1);
+		user.setUsername("bench-user");
+		Cart cart = new Cart();
+		cart.setId(1L);
+		cart.setUser(user);
+		user.setCart(cart);
+		for (Item item : items) {
+			cart.addItem(item, 2);
+		}
+		return cart;
+	}
+}
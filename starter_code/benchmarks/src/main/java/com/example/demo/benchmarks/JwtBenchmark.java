@@ -0,0 +1,69 @@
+package com.example.demo.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.security.SecurityConstants;
+import com.example.demo.security.VerifiedTokenCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+
+/**
+ * Token work on the security hot paths: signing a token as the login filter
+ * does after a successful authentication, a full HMAC verification as a
+ * {@link VerifiedTokenCache} miss does, and a cache hit as every later
+ * request with the same token gets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+	private final JWTVerifier verifier = JWT.require(HMAC512(SecurityConstants.SECRET.getBytes())).build();
+	private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(10_000, 300, new SimpleMeterRegistry());
+	private String token;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		token = sign();
+		verifiedTokenCache.verify(token);
+	}
+
+	@Benchmark
+	public String sign() {
+		return JWT.create()
+				.withSubject("bench-user")
+				.withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME))
+				.sign(HMAC512(SecurityConstants.SECRET.getBytes()));
+	}
+
+	@Benchmark
+	public DecodedJWT verify() {
+		return verifier.verify(token);
+	}
+
+	@Benchmark
+	public String verifyCached() {
+		return verifiedTokenCache.verify(token);
+	}
+}
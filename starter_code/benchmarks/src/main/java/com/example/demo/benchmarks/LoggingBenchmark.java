@@ -0,0 +1,120 @@
+package com.example.demo.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+
+/**
+ * Logging cost of one {@code /api/cart/addToCart} request, from four request
+ * threads at once: the old concatenated "request received" and "SUCCESS"
+ * lines, both at INFO, against the current parameterized lines with the
+ * request line at DEBUG. Each runs against the Splunk file layout written
+ * directly ({@code sync}) or through an {@link AsyncAppender} that blocks
+ * ({@code async-block}) or drops ({@code async-drop}) when its queue is full.
+ * The producers log far faster than a real request rate, so the async queue
+ * is usually full and {@code async-block} measures the writer's throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+	private static final String PATTERN =
+			"time=%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} level=%level logger=%logger{0} thread=%thread %msg %kvp%n";
+
+	@Param({"sync", "async-block", "async-drop"})
+	public String appender;
+
+	private LoggerContext context;
+	private Path file;
+	private Logger log;
+
+	private final String username = "someUser";
+	private final long itemId = 42;
+	private final int quantity = 3;
+	private final String itemName = "Round Widget";
+
+	@Setup(Level.Trial)
+	public void start() throws IOException {
+		file = Files.createTempFile("logging-benchmark", ".log");
+		context = new LoggerContext();
+		// without one every event reports a missing adapter, which dominates the cost
+		context.setMDCAdapter(new LogbackMDCAdapter());
+
+		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+		encoder.setContext(context);
+		encoder.setPattern(PATTERN);
+		encoder.start();
+
+		FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+		fileAppender.setContext(context);
+		fileAppender.setFile(file.toString());
+		fileAppender.setEncoder(encoder);
+		fileAppender.start();
+
+		Appender<ILoggingEvent> root = fileAppender;
+		if (!appender.equals("sync")) {
+			AsyncAppender async = new AsyncAppender();
+			async.setContext(context);
+			async.setQueueSize(8192);
+			async.setDiscardingThreshold(0);
+			async.setNeverBlock(appender.equals("async-drop"));
+			async.addAppender(fileAppender);
+			async.start();
+			root = async;
+		}
+
+		ch.qos.logback.classic.Logger logger = context.getLogger("com.example.demo.controllers.CartController");
+		logger.setLevel(ch.qos.logback.classic.Level.INFO);
+		logger.setAdditive(false);
+		logger.addAppender(root);
+		log = logger;
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() throws IOException {
+		context.stop();
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public void concatenatedAtInfo() {
+		log.info("AddToCart request received for user: " + username + ", itemId: " + itemId + ", quantity: " + quantity);
+		log.info("AddToCart SUCCESS - Added " + quantity + " x " + itemName + " to cart for user: " + username);
+	}
+
+	@Benchmark
+	public void parameterized() {
+		log.debug("AddToCart REQUEST user={} itemId={} quantity={}", username, itemId, quantity);
+		log.info("AddToCart SUCCESS user={} itemId={} quantity={}", username, itemId, quantity);
+	}
+}
@@ -0,0 +1,51 @@
+package com.example.demo.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.requests.LoginRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Parsing of the {@code /login} body: a new {@link ObjectMapper} binding into
+ * the {@link User} entity per request (the old filter) against a shared
+ * reader binding into {@link LoginRequest} (the current filter). Run with
+ * {@code -prof gc} to see allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginParsingBenchmark {
+
+	private static final byte[] BODY = "{\"username\":\"someUser\",\"password\":\"somePassword\"}"
+			.getBytes(StandardCharsets.UTF_8);
+
+	private final ObjectReader credentialsReader = new ObjectMapper().readerFor(LoginRequest.class);
+
+	@Benchmark
+	public User newObjectMapperIntoUserEntity() throws IOException {
+		return new ObjectMapper().readValue(new ByteArrayInputStream(BODY), User.class);
+	}
+
+	@Benchmark
+	public LoginRequest sharedReaderIntoLoginRequest() throws IOException {
+		return credentialsReader.readValue(new ByteArrayInputStream(BODY));
+	}
+}
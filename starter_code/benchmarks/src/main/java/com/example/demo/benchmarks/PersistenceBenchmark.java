@@ -0,0 +1,137 @@
+package com.example.demo.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.SareetaApplication;
+import com.example.demo.cart.CartService;
+import com.example.demo.checkout.CheckoutService;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+
+/**
+ * Insert throughput of the two write-heavy paths against the in-memory
+ * database: loading the catalog in chunks of {@value #CATALOG_CHUNK} items,
+ * and submitting an order from a cart of {@value #CART_LINES} lines. Each
+ * {@code batchSize} runs in its own forked application context;
+ * {@code batchSize=1} turns JDBC batching off. Warmup is long because the
+ * whole Spring and Hibernate write path has to be compiled first.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PersistenceBenchmark {
+
+	static final int CATALOG_CHUNK = 1000;
+	static final int CART_LINES = 50;
+
+	@State(Scope.Benchmark)
+	public static class Application {
+
+		@Param({"1", "50"})
+		public int batchSize;
+
+		ConfigurableApplicationContext context;
+		TransactionTemplate transactionTemplate;
+		ItemRepository itemRepository;
+		CartService cartService;
+		CheckoutService checkoutService;
+		List<Item> cartItems;
+		String username = "bench-user";
+
+		@Setup(Level.Trial)
+		public void start() {
+			context = new SpringApplicationBuilder(SareetaApplication.class).run(
+					"--server.port=0",
+					"--spring.datasource.url=jdbc:h2:mem:persistence-bench;NON_KEYWORDS=user",
+					"--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+					"--spring.jpa.properties.hibernate.format_sql=false");
+			transactionTemplate = context.getBean(TransactionTemplate.class);
+			itemRepository = context.getBean(ItemRepository.class);
+			cartService = context.getBean(CartService.class);
+			checkoutService = context.getBean(CheckoutService.class);
+			UserRepository userRepository = context.getBean(UserRepository.class);
+
+			cartItems = transactionTemplate.execute(status -> itemRepository.saveAll(newItems("cart", CART_LINES)));
+			transactionTemplate.executeWithoutResult(status -> {
+				Cart cart = new Cart();
+				User user = new User();
+				user.setUsername(username);
+				user.setPassword("not-a-real-hash");
+				user.setCart(cart);
+				cart.setUser(user);
+				userRepository.save(user);
+			});
+		}
+
+		@TearDown(Level.Trial)
+		public void stop() {
+			context.close();
+		}
+	}
+
+	/**
+	 * Refills the cart before every order submission, outside the measurement.
+	 */
+	@State(Scope.Benchmark)
+	public static class FullCart {
+
+		@Setup(Level.Invocation)
+		public void fill(Application application) {
+			application.cartService.update(application.username, cart -> {
+				application.cartItems.forEach(item -> cart.addItem(item, 1));
+				return cart;
+			});
+		}
+	}
+
+	static List<Item> newItems(String prefix, int count) {
+		List<Item> items = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Item item = new Item();
+			item.setName(prefix + " item " + i);
+			item.setPrice(BigDecimal.valueOf(100 + i, 2));
+			item.setDescription("Benchmark item");
+			items.add(item);
+		}
+		return items;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CATALOG_CHUNK)
+	public List<Item> catalogLoadItems(Application application) {
+		return application.transactionTemplate.execute(
+				status -> application.itemRepository.saveAll(newItems("catalog", CATALOG_CHUNK)));
+	}
+
+	@Benchmark
+	public UserOrder submitOrder(Application application, FullCart cart) {
+		return application.checkoutService.checkout(application.username);
+	}
+}
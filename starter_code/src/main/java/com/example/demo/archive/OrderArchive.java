@@ -0,0 +1,197 @@
+package com.example.demo.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.OrderSummary;
+
+/**
+ * Cold storage for old orders: a directory of {@link OrderSegment} files,
+ * each written once by the {@link OrderArchiver} and never changed. Every
+ * segment is memory-mapped when it is opened, and the user index of all
+ * segments is kept in memory, so reading a user's archived orders is a map
+ * lookup plus one decompressed block per segment they appear in. Single-order
+ * and paged reads use the id range of each block to decode fewer of them.
+ * <p>
+ * Without {@code orders.archive.dir} the archive is empty and nothing is
+ * read or written. Archived orders are returned with the caller's
+ * {@link User}, since only the user id is stored.
+ */
+@Component
+public class OrderArchive {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderArchive.class);
+
+	static final String PREFIX = "orders-";
+
+	private final Path dir;
+	private final Map<Long, List<OrderSegment.Block>> blocksByUser = new ConcurrentHashMap<>();
+	private final ReentrantLock appendLock = new ReentrantLock();
+	private volatile int segments;
+	private long nextSequence = 1;
+
+	@Autowired
+	public OrderArchive(@Value("${orders.archive.dir:}") String dir) throws IOException {
+		this.dir = dir == null || dir.isBlank() ? null : Path.of(dir);
+		if (this.dir != null && Files.isDirectory(this.dir)) {
+			load();
+		}
+	}
+
+	private void load() throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + OrderSegment.SUFFIX)) {
+			stream.forEach(files::add);
+		}
+		files.sort(Comparator.naturalOrder());
+		for (Path file : files) {
+			register(OrderSegment.open(file));
+			nextSequence = Math.max(nextSequence, sequenceOf(file) + 1);
+		}
+		if (!files.isEmpty()) {
+			log.info("OrderArchive LOADED segments={} users={} dir={}", segments, blocksByUser.size(), dir);
+		}
+	}
+
+	private static long sequenceOf(Path file) {
+		String name = file.getFileName().toString();
+		return Long.parseLong(name.substring(PREFIX.length(), name.length() - OrderSegment.SUFFIX.length()));
+	}
+
+	private void register(OrderSegment segment) {
+		segment.blocks().forEach((userId, block) -> blocksByUser.merge(userId, List.of(block), (current, added) -> {
+			List<OrderSegment.Block> merged = new ArrayList<>(current);
+			merged.addAll(added);
+			return List.copyOf(merged);
+		}));
+		segments++;
+	}
+
+	public boolean enabled() {
+		return dir != null;
+	}
+
+	public int segments() {
+		return segments;
+	}
+
+	/**
+	 * Writes {@code orders}, which need their user and items loaded, to a new
+	 * segment and makes them readable. Returns the segment file.
+	 */
+	public Path append(List<UserOrder> orders) throws IOException {
+		if (dir == null) {
+			throw new IllegalStateException("orders.archive.dir is not set");
+		}
+		appendLock.lock();
+		try {
+			Files.createDirectories(dir);
+			Path file = dir.resolve(String.format("%s%06d%s", PREFIX, nextSequence, OrderSegment.SUFFIX));
+			OrderSegment segment = OrderSegment.write(file, orders);
+			nextSequence++;
+			register(segment);
+			return file;
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	/**
+	 * The user's archived orders by ascending id. An order archived twice, as
+	 * happens when a run stops between writing its segment and deleting the
+	 * rows, is returned once.
+	 */
+	public List<UserOrder> findByUser(User user) {
+		TreeMap<Long, UserOrder> orders = new TreeMap<>();
+		for (OrderSegment.Block block : blocksOf(user)) {
+			read(block, user).forEach(order -> orders.put(order.getId(), order));
+		}
+		return new ArrayList<>(orders.values());
+	}
+
+	/**
+	 * Decodes only the blocks whose id range contains {@code id}.
+	 */
+	public Optional<UserOrder> findByIdAndUser(Long id, User user) {
+		for (OrderSegment.Block block : blocksOf(user)) {
+			if (block.contains(id)) {
+				for (UserOrder order : read(block, user)) {
+					if (order.getId().equals(id)) {
+						return Optional.of(order);
+					}
+				}
+			}
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Newest-first summaries of the user's archived orders with an id below
+	 * {@code before}. Blocks that start at or above {@code before} are skipped,
+	 * and the rest are decoded newest first until no remaining block can hold
+	 * an order newer than the oldest one on the page.
+	 */
+	public List<OrderSummary> findSummariesByUserBefore(User user, long before, int limit) {
+		List<OrderSegment.Block> blocks = new ArrayList<>();
+		for (OrderSegment.Block block : blocksOf(user)) {
+			if (block.minOrderId() < before) {
+				blocks.add(block);
+			}
+		}
+		blocks.sort(Comparator.comparingLong(OrderSegment.Block::maxOrderId).reversed());
+
+		TreeMap<Long, UserOrder> newest = new TreeMap<>();
+		for (OrderSegment.Block block : blocks) {
+			if (newest.size() >= limit && block.maxOrderId() < newest.firstKey()) {
+				break;
+			}
+			for (UserOrder order : read(block, user)) {
+				if (order.getId() < before) {
+					newest.put(order.getId(), order);
+					if (newest.size() > limit) {
+						newest.pollFirstEntry();
+					}
+				}
+			}
+		}
+		List<OrderSummary> summaries = new ArrayList<>(newest.size());
+		for (UserOrder order : newest.descendingMap().values()) {
+			summaries.add(new OrderSummary(order.getId(), order.getTotal(), order.getItemCount(),
+					order.getCreatedAt()));
+		}
+		return summaries;
+	}
+
+	private List<OrderSegment.Block> blocksOf(User user) {
+		return blocksByUser.getOrDefault(user.getId(), List.of());
+	}
+
+	private static List<UserOrder> read(OrderSegment.Block block, User user) {
+		try {
+			List<UserOrder> orders = block.segment().read(block);
+			orders.forEach(order -> order.setUser(user));
+			return orders;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.example.demo.archive;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Moves orders older than {@code orders.archive.min-age-days} from the
+ * database to the {@link OrderArchive} on the {@code orders.archive.cron}
+ * schedule, so the order tables only hold recent orders. Each batch of
+ * {@code orders.archive.batch-size} orders becomes one segment; its rows are
+ * deleted only after the segment is on disk and readable, so an order is
+ * never missing from history. A run that fails after writing a segment
+ * leaves those orders in both places until the next run archives them again;
+ * {@link OrderHistory} and {@link OrderArchive} return each order once.
+ */
+@Component
+@ConditionalOnProperty("orders.archive.dir")
+public class OrderArchiver {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+	private final OrderRepository orderRepository;
+	private final OrderArchive orderArchive;
+	private final TransactionTemplate transactionTemplate;
+	private final Duration minAge;
+	private final int batchSize;
+	private final Counter archived;
+
+	@Autowired
+	public OrderArchiver(OrderRepository orderRepository, OrderArchive orderArchive,
+			PlatformTransactionManager transactionManager, MeterRegistry registry,
+			@Value("${orders.archive.min-age-days:180}") long minAgeDays,
+			@Value("${orders.archive.batch-size:10000}") int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("orders.archive.batch-size must be at least 1");
+		}
+		this.orderRepository = orderRepository;
+		this.orderArchive = orderArchive;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.minAge = Duration.ofDays(minAgeDays);
+		this.batchSize = batchSize;
+		this.archived = Counter.builder("orders.archived")
+				.description("Orders moved from the database to the archive")
+				.register(registry);
+	}
+
+	@Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+	public void run() {
+		try {
+			archiveOlderThan(Instant.now().minus(minAge));
+		} catch (IOException | RuntimeException e) {
+			log.error("OrderArchive EXCEPTION", e);
+		}
+	}
+
+	/**
+	 * Archives every order written before {@code cutoff} and returns how many
+	 * were moved.
+	 */
+	public int archiveOlderThan(Instant cutoff) throws IOException {
+		long start = System.nanoTime();
+		int total = 0;
+		int segments = 0;
+		List<Long> ids;
+		while (!(ids = orderRepository.findIdsCreatedBefore(cutoff, Limit.of(batchSize))).isEmpty()) {
+			List<Long> batch = ids;
+			List<UserOrder> orders = transactionTemplate.execute(status -> orderRepository.findByIdIn(batch));
+			Path segment = orderArchive.append(orders);
+			transactionTemplate.executeWithoutResult(status -> {
+				orderRepository.deleteLinesByOrderIdIn(batch);
+				orderRepository.deleteByIdIn(batch);
+			});
+			total += orders.size();
+			segments++;
+			archived.increment(orders.size());
+			log.info("OrderArchive SEGMENT orders={} file={}", orders.size(), segment.getFileName());
+		}
+		log.info("OrderArchive SUCCESS orders={} segments={} cutoff={} ms={}", total, segments, cutoff,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return total;
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.demo.archive;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.responses.OrderSummary;
+
+/**
+ * A user's orders from the database and the {@link OrderArchive} together,
+ * so callers do not need to know where an order is kept. An order that is in
+ * both, for the moment between the archiver writing it and deleting its row,
+ * is returned once, from the database.
+ */
+@Service
+public class OrderHistory {
+
+	private final OrderRepository orderRepository;
+	private final OrderArchive orderArchive;
+
+	public OrderHistory(OrderRepository orderRepository, OrderArchive orderArchive) {
+		this.orderRepository = orderRepository;
+		this.orderArchive = orderArchive;
+	}
+
+	/**
+	 * Every order of the user, archived ones first.
+	 */
+	public List<UserOrder> findByUser(User user) {
+		List<UserOrder> hot = orderRepository.findByUser(user);
+		List<UserOrder> archived = orderArchive.findByUser(user);
+		if (archived.isEmpty()) {
+			return hot;
+		}
+		TreeMap<Long, UserOrder> orders = new TreeMap<>();
+		archived.forEach(order -> orders.put(order.getId(), order));
+		hot.forEach(order -> orders.put(order.getId(), order));
+		return new ArrayList<>(orders.values());
+	}
+
+	/**
+	 * Newest-first summaries with an id below {@code before}: a page from each
+	 * store, merged by id.
+	 */
+	public List<OrderSummary> findSummariesByUserBefore(User user, long before, int limit) {
+		List<OrderSummary> hot = orderRepository.findSummariesByUserBefore(user, before, Limit.of(limit));
+		List<OrderSummary> archived = orderArchive.findSummariesByUserBefore(user, before, limit);
+		if (archived.isEmpty()) {
+			return hot;
+		}
+		TreeMap<Long, OrderSummary> summaries = new TreeMap<>(Comparator.reverseOrder());
+		archived.forEach(summary -> summaries.put(summary.id(), summary));
+		hot.forEach(summary -> summaries.put(summary.id(), summary));
+		return summaries.values().stream().limit(limit).toList();
+	}
+
+	public Optional<UserOrder> findByIdAndUser(Long id, User user) {
+		return orderRepository.findByIdAndUser(id, user).or(() -> orderArchive.findByIdAndUser(id, user));
+	}
+}
@@ -0,0 +1,337 @@
+package com.example.demo.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.UserOrder;
+
+/**
+ * One immutable, memory-mapped archive file. Orders are grouped into one
+ * deflate-compressed block per user, and an index at the end of the file maps
+ * each user to their block and the range of order ids in it, so reading a
+ * user's orders touches only their bytes, and looking up one order or a page
+ * of older orders skips blocks that cannot contain them:
+ *
+ * <pre>
+ * header   int magic, int version
+ * blocks   compressed user blocks, back to back
+ * index    int users, then per user: long userId, long offset,
+ *          int compressedLength, int rawLength, int orders,
+ *          long minOrderId, long maxOrderId
+ * trailer  long indexOffset, int magic
+ * </pre>
+ *
+ * A block starts with the distinct items its orders contain, as they were
+ * when archived, followed by the orders, whose lines refer to those items by
+ * position and carry the quantity and unit price. Archived orders therefore
+ * keep their original names and prices even after the catalog changes.
+ */
+final class OrderSegment {
+
+	static final String SUFFIX = ".seg";
+	private static final int MAGIC = 0x4F524441; // "ORDA"
+	private static final int VERSION = 1;
+	private static final int TRAILER_LENGTH = Long.BYTES + Integer.BYTES;
+
+	/**
+	 * Where one user's block is in a segment, and the lowest and highest order
+	 * id it holds.
+	 */
+	record Block(OrderSegment segment, long offset, int compressedLength, int rawLength, int orders,
+			long minOrderId, long maxOrderId) {
+
+		boolean contains(long orderId) {
+			return minOrderId <= orderId && orderId <= maxOrderId;
+		}
+	}
+
+	private final Path path;
+	private final MappedByteBuffer buffer;
+	private final Map<Long, Block> blocks;
+
+	private OrderSegment(Path path, MappedByteBuffer buffer, Map<Long, Block> blocks) {
+		this.path = path;
+		this.buffer = buffer;
+		this.blocks = blocks;
+	}
+
+	Path path() {
+		return path;
+	}
+
+	/**
+	 * Blocks by user id.
+	 */
+	Map<Long, Block> blocks() {
+		return blocks;
+	}
+
+	/**
+	 * Maps an existing segment and reads its index.
+	 *
+	 * @throws IOException if the file is not a complete segment
+	 */
+	static OrderSegment open(Path path) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.capacity() < 2 * Integer.BYTES + TRAILER_LENGTH || buffer.getInt(0) != MAGIC
+				|| buffer.getInt(buffer.capacity() - Integer.BYTES) != MAGIC) {
+			throw new IOException(path + " is not an order archive segment");
+		}
+		int version = buffer.getInt(Integer.BYTES);
+		if (version != VERSION) {
+			throw new IOException(path + " has unsupported version " + version);
+		}
+		ByteBuffer index = buffer.duplicate().position((int) buffer.getLong(buffer.capacity() - TRAILER_LENGTH));
+		int users = index.getInt();
+		Map<Long, Block> blocks = new HashMap<>(users * 2);
+		OrderSegment segment = new OrderSegment(path, buffer, blocks);
+		for (int i = 0; i < users; i++) {
+			long userId = index.getLong();
+			long offset = index.getLong();
+			int compressedLength = index.getInt();
+			int rawLength = index.getInt();
+			int orders = index.getInt();
+			long minOrderId = index.getLong();
+			long maxOrderId = index.getLong();
+			blocks.put(userId, new Block(segment, offset, compressedLength, rawLength, orders, minOrderId, maxOrderId));
+		}
+		return segment;
+	}
+
+	/**
+	 * Writes {@code orders} to a new segment at {@code path} and maps it. The
+	 * file is written under a temporary name, forced to disk and then renamed,
+	 * so a crash never leaves a partial segment under the final name.
+	 */
+	static OrderSegment write(Path path, List<UserOrder> orders) throws IOException {
+		Map<Long, List<UserOrder>> byUser = new TreeMap<>();
+		for (UserOrder order : orders) {
+			byUser.computeIfAbsent(order.getUser().getId(), id -> new ArrayList<>()).add(order);
+		}
+
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			CountingOutputStream counting = new CountingOutputStream(
+					new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+			DataOutputStream out = new DataOutputStream(counting);
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+
+			ByteArrayOutputStream index = new ByteArrayOutputStream();
+			DataOutputStream indexOut = new DataOutputStream(index);
+			indexOut.writeInt(byUser.size());
+			Deflater deflater = new Deflater();
+			try {
+				for (Map.Entry<Long, List<UserOrder>> user : byUser.entrySet()) {
+					byte[] raw = encode(user.getValue());
+					byte[] compressed = compress(deflater, raw);
+					indexOut.writeLong(user.getKey());
+					indexOut.writeLong(counting.count);
+					indexOut.writeInt(compressed.length);
+					indexOut.writeInt(raw.length);
+					indexOut.writeInt(user.getValue().size());
+					indexOut.writeLong(user.getValue().stream().mapToLong(UserOrder::getId).min().getAsLong());
+					indexOut.writeLong(user.getValue().stream().mapToLong(UserOrder::getId).max().getAsLong());
+					out.write(compressed);
+				}
+			} finally {
+				deflater.end();
+			}
+			long indexOffset = counting.count;
+			index.writeTo(out);
+			out.writeLong(indexOffset);
+			out.writeInt(MAGIC);
+			out.flush();
+			channel.force(true);
+		}
+		Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+		return open(path);
+	}
+
+	/**
+	 * Decodes one block. Safe to call from several threads: reads use
+	 * absolute positions and never move the shared buffer.
+	 */
+	List<UserOrder> read(Block block) throws IOException {
+		byte[] raw = new byte[block.rawLength()];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(buffer.slice((int) block.offset(), block.compressedLength()));
+			if (inflater.inflate(raw) != raw.length || !inflater.finished()) {
+				throw new IOException(path + " has a truncated block at " + block.offset());
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(path + " has a corrupt block at " + block.offset(), e);
+		} finally {
+			inflater.end();
+		}
+		return decode(raw);
+	}
+
+	private static byte[] compress(Deflater deflater, byte[] raw) {
+		deflater.reset();
+		deflater.setInput(raw);
+		deflater.finish();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+		byte[] chunk = new byte[8192];
+		while (!deflater.finished()) {
+			out.write(chunk, 0, deflater.deflate(chunk));
+		}
+		return out.toByteArray();
+	}
+
+	static byte[] encode(List<UserOrder> orders) throws IOException {
+		Map<Long, Integer> positions = new HashMap<>();
+		List<Item> items = new ArrayList<>();
+		for (UserOrder order : orders) {
+			for (OrderLine line : order.getLines()) {
+				if (positions.putIfAbsent(line.getItem().getId(), items.size()) == null) {
+					items.add(line.getItem());
+				}
+			}
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(items.size());
+		for (Item item : items) {
+			out.writeLong(item.getId());
+			writeString(out, item.getSku());
+			writeString(out, item.getName());
+			writeDecimal(out, item.getPrice());
+			writeString(out, item.getDescription());
+		}
+		out.writeInt(orders.size());
+		for (UserOrder order : orders) {
+			out.writeLong(order.getId());
+			writeDecimal(out, order.getTotal());
+			Instant createdAt = order.getCreatedAt();
+			out.writeBoolean(createdAt != null);
+			if (createdAt != null) {
+				out.writeLong(createdAt.getEpochSecond());
+				out.writeInt(createdAt.getNano());
+			}
+			out.writeInt(order.getLines().size());
+			for (OrderLine line : order.getLines()) {
+				out.writeInt(positions.get(line.getItem().getId()));
+				out.writeInt(line.getQuantity());
+				writeDecimal(out, line.getUnitPrice());
+			}
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	static List<UserOrder> decode(byte[] raw) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+		Item[] items = new Item[in.readInt()];
+		for (int i = 0; i < items.length; i++) {
+			Item item = new Item();
+			item.setId(in.readLong());
+			item.setSku(readString(in));
+			item.setName(readString(in));
+			item.setPrice(readDecimal(in));
+			item.setDescription(readString(in));
+			items[i] = item;
+		}
+		int count = in.readInt();
+		List<UserOrder> orders = new ArrayList<>(count);
+		for (int o = 0; o < count; o++) {
+			UserOrder order = new UserOrder();
+			order.setId(in.readLong());
+			order.setTotal(readDecimal(in));
+			if (in.readBoolean()) {
+				order.setCreatedAt(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+			}
+			int lines = in.readInt();
+			for (int l = 0; l < lines; l++) {
+				order.addLine(items[in.readInt()], in.readInt(), readDecimal(in));
+			}
+			orders.add(order);
+		}
+		return orders;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			byte[] unscaled = value.unscaledValue().toByteArray();
+			out.writeInt(value.scale());
+			out.writeByte(unscaled.length);
+			out.write(unscaled);
+		}
+	}
+
+	private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		int scale = in.readInt();
+		byte[] unscaled = new byte[in.readUnsignedByte()];
+		in.readFully(unscaled);
+		return new BigDecimal(new BigInteger(unscaled), scale);
+	}
+
+	private static final class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
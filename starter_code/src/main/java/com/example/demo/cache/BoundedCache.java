@@ -0,0 +1,158 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Small in-process LRU cache with a maximum size and a time to live per entry.
+ * Counts hits, misses, capacity evictions and expirations so it can be sized
+ * from production numbers. Loads run outside the lock, so two threads missing
+ * on the same key may both load it; the last one wins.
+ */
+public class BoundedCache<K, V> {
+
+	private final String name;
+	private final int maxSize;
+	private final long ttlMillis;
+	private final LongSupplier clock;
+	private final Map<K, Entry<V>> entries;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+
+	public BoundedCache(String name, int maxSize, Duration ttl) {
+		this(name, maxSize, ttl, System::currentTimeMillis);
+	}
+
+	public BoundedCache(String name, int maxSize, Duration ttl, LongSupplier clock) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+		}
+		this.name = name;
+		this.maxSize = maxSize;
+		this.ttlMillis = ttl.toMillis();
+		this.clock = clock;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() > BoundedCache.this.maxSize) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached value, or {@code null} if absent or expired.
+	 */
+	public V get(K key) {
+		long now = clock.getAsLong();
+		synchronized (entries) {
+			Entry<V> entry = entries.get(key);
+			if (entry != null) {
+				if (entry.expiresAt > now) {
+					hits.increment();
+					return entry.value;
+				}
+				entries.remove(key);
+				expirations.increment();
+			}
+		}
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * Returns the cached value or loads, caches and returns it. A {@code null}
+	 * result from the loader is returned but not cached.
+	 */
+	public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+		V value = get(key);
+		if (value == null) {
+			value = loader.apply(key);
+			if (value != null) {
+				put(key, value);
+			}
+		}
+		return value;
+	}
+
+	public void put(K key, V value) {
+		put(key, value, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Caches the value until the earlier of {@code expiresAtMillis} and the
+	 * cache's own time to live.
+	 */
+	public void put(K key, V value, long expiresAtMillis) {
+		long now = clock.getAsLong();
+		long expiresAt = Math.min(expiresAtMillis, now + ttlMillis);
+		if (expiresAt <= now) {
+			return;
+		}
+		synchronized (entries) {
+			entries.put(key, new Entry<>(value, expiresAt));
+		}
+	}
+
+	/**
+	 * Caches {@code value} unless the key already has a live entry. Returns
+	 * the existing value in that case, or {@code null} if {@code value} was
+	 * stored. The check and the store happen under one lock, so exactly one of
+	 * several concurrent callers stores its value.
+	 */
+	public V putIfAbsent(K key, V value) {
+		long now = clock.getAsLong();
+		synchronized (entries) {
+			Entry<V> entry = entries.get(key);
+			if (entry != null && entry.expiresAt > now) {
+				hits.increment();
+				return entry.value;
+			}
+			if (entry != null) {
+				expirations.increment();
+			}
+			entries.put(key, new Entry<>(value, now + ttlMillis));
+		}
+		misses.increment();
+		return null;
+	}
+
+	public void invalidate(K key) {
+		synchronized (entries) {
+			entries.remove(key);
+		}
+	}
+
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public CacheStats stats() {
+		return new CacheStats(name, hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size(), maxSize);
+	}
+
+	private record Entry<V>(V value, long expiresAt) {
+	}
+}
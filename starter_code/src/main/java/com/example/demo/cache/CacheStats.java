@@ -0,0 +1,18 @@
+package com.example.demo.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Point-in-time counters of a {@link BoundedCache}. {@code evictions} counts
+ * entries dropped because the cache was full, {@code expirations} entries
+ * dropped because their time to live had passed.
+ */
+public record CacheStats(String name, long hits, long misses, long evictions, long expirations,
+		int size, int maxSize) {
+
+	@JsonProperty
+	public double hitRate() {
+		long requests = hits + misses;
+		return requests == 0 ? 0.0 : (double) hits / requests;
+	}
+}
@@ -0,0 +1,18 @@
+package com.example.demo.cart;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Point-in-time counters of {@link CartService}. {@code conflicts} counts
+ * attempts that lost a version check, {@code failures} updates that still
+ * conflicted on their last attempt, {@code lockWaits} updates that found
+ * their lock stripe taken in striped mode.
+ */
+public record CartContentionStats(String mode, long updates, long conflicts, long failures,
+		long lockWaits, long lockWaitMillis) {
+
+	@JsonProperty
+	public double conflictRate() {
+		return updates == 0 ? 0.0 : (double) conflicts / updates;
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.demo.cart;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
+
+/**
+ * Money arithmetic for carts and orders. Every amount is kept at
+ * {@link #SCALE} decimal places and unit prices are rounded once, with
+ * {@link #ROUNDING}, when they are copied onto a cart line. After that all
+ * sums and products are exact, so a total kept up to date change by change
+ * always equals the total recomputed from the lines.
+ */
+public final class CartPricing {
+
+	public static final int SCALE = 2;
+	public static final RoundingMode ROUNDING = RoundingMode.HALF_EVEN;
+
+	private static final BigDecimal ZERO = BigDecimal.ZERO.setScale(SCALE);
+
+	private CartPricing() {
+	}
+
+	/**
+	 * Returns {@code amount} at the money scale, treating {@code null} as zero.
+	 */
+	public static BigDecimal money(BigDecimal amount) {
+		return amount == null ? ZERO : amount.setScale(SCALE, ROUNDING);
+	}
+
+	public static BigDecimal lineTotal(BigDecimal unitPrice, int quantity) {
+		return money(unitPrice).multiply(BigDecimal.valueOf(quantity));
+	}
+
+	/**
+	 * Returns {@code total} changed by {@code quantity} units of
+	 * {@code unitPrice}; a negative quantity takes units away.
+	 */
+	public static BigDecimal adjust(BigDecimal total, BigDecimal unitPrice, int quantity) {
+		return money(total).add(lineTotal(unitPrice, quantity));
+	}
+
+	/**
+	 * Sums the lines from scratch, in O(lines).
+	 */
+	public static BigDecimal total(Collection<CartLine> lines) {
+		BigDecimal total = ZERO;
+		if (lines != null) {
+			for (CartLine line : lines) {
+				total = total.add(lineTotal(line.getUnitPrice(), line.getQuantity()));
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Resets the cart's total to the sum of its lines. Returns {@code true} if
+	 * the stored total was wrong.
+	 */
+	public static boolean repair(Cart cart) {
+		BigDecimal expected = total(cart.getLines());
+		BigDecimal stored = cart.getTotal();
+		if (stored != null && stored.compareTo(expected) == 0) {
+			return false;
+		}
+		cart.setTotal(expected);
+		return stored != null || expected.signum() != 0;
+	}
+}
@@ -0,0 +1,197 @@
+package com.example.demo.cart;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+
+/**
+ * Applies changes to a user's cart. Every change is a read-modify-write in its
+ * own transaction, checked against the cart's {@code @Version}; when another
+ * request changed the cart in between, the change is re-applied to a fresh
+ * read, up to {@code cart.concurrency.max-attempts} times. Each retry first
+ * sleeps a random time up to {@code cart.concurrency.retry-backoff-ms},
+ * doubled per attempt and capped at {@code cart.concurrency.max-backoff-ms},
+ * so that colliding requests spread out further the longer they keep
+ * colliding.
+ * <p>
+ * With {@code cart.concurrency.mode=striped} changes to the same cart are also
+ * serialized on an in-process lock picked by username, so hot carts wait for
+ * each other instead of failing and retrying. The version check stays on for
+ * writers outside this process. {@link #stats()} shows how often each path
+ * conflicts or waits.
+ */
+@Service
+public class CartService {
+
+	private static final Logger log = LoggerFactory.getLogger(CartService.class);
+
+	public enum Mode {
+		OPTIMISTIC, STRIPED
+	}
+
+	private final UserRepository userRepository;
+	private final CartRepository cartRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final Mode mode;
+	private final int maxAttempts;
+	private final long retryBackoffMillis;
+	private final long maxBackoffMillis;
+	private final ReentrantLock[] stripes;
+
+	private final LongAdder updates = new LongAdder();
+	private final LongAdder conflicts = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder lockWaits = new LongAdder();
+	private final LongAdder lockWaitNanos = new LongAdder();
+
+	@Autowired
+	public CartService(UserRepository userRepository, CartRepository cartRepository,
+			PlatformTransactionManager transactionManager,
+			@Value("${cart.concurrency.mode:optimistic}") String mode,
+			@Value("${cart.concurrency.max-attempts:6}") int maxAttempts,
+			@Value("${cart.concurrency.retry-backoff-ms:5}") long retryBackoffMillis,
+			@Value("${cart.concurrency.max-backoff-ms:200}") long maxBackoffMillis,
+			@Value("${cart.concurrency.lock-stripes:64}") int lockStripes) {
+		this.userRepository = userRepository;
+		this.cartRepository = cartRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+		this.maxAttempts = Math.max(1, maxAttempts);
+		this.retryBackoffMillis = retryBackoffMillis;
+		this.maxBackoffMillis = Math.max(retryBackoffMillis, maxBackoffMillis);
+		this.stripes = new ReentrantLock[Math.max(1, lockStripes)];
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Applies {@code change} to the user's cart, saves the cart and returns
+	 * whatever {@code change} returned. {@code change} may run more than once
+	 * and must only depend on the cart it is given. Returns {@code null}
+	 * without calling {@code change} if the user does not exist.
+	 *
+	 * @throws OptimisticLockingFailureException if the cart kept changing for every attempt
+	 */
+	public <T> T update(String username, Function<Cart, T> change) {
+		if (username == null) {
+			return null;
+		}
+		if (mode == Mode.OPTIMISTIC) {
+			return updateWithRetry(username, change);
+		}
+		ReentrantLock lock = stripes[Math.floorMod(username.hashCode(), stripes.length)];
+		if (!lock.tryLock()) {
+			lockWaits.increment();
+			long started = System.nanoTime();
+			lock.lock();
+			lockWaitNanos.add(System.nanoTime() - started);
+		}
+		try {
+			return updateWithRetry(username, change);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private <T> T updateWithRetry(String username, Function<Cart, T> change) {
+		updates.increment();
+		for (int attempt = 1;; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> updateOnce(username, change));
+			} catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+				// two first adds of the same item collide on the cart_line unique key
+				// before the version check runs; that is the same lost race. Any other
+				// integrity violation is a real error and would fail again
+				if (e instanceof DataIntegrityViolationException integrity && !isCartLineCollision(integrity)) {
+					throw integrity;
+				}
+				conflicts.increment();
+				if (attempt >= maxAttempts) {
+					failures.increment();
+					throw asOptimisticLockingFailure(e);
+				}
+				log.warn("Cart CONFLICT user={} attempt={} maxAttempts={}", username, attempt, maxAttempts);
+				pauseBeforeRetry(attempt);
+			}
+		}
+	}
+
+	static boolean isCartLineCollision(DataIntegrityViolationException e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			String message = cause.getMessage();
+			if (message != null && message.toLowerCase(Locale.ROOT).contains(CartLine.UNIQUE_KEY)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static OptimisticLockingFailureException asOptimisticLockingFailure(DataAccessException e) {
+		if (e instanceof OptimisticLockingFailureException optimistic) {
+			return optimistic;
+		}
+		return new OptimisticLockingFailureException("Cart changed concurrently", e);
+	}
+
+	private void pauseBeforeRetry(int attempt) {
+		long bound = backoffBound(attempt);
+		if (bound <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Longest pause after the {@code attempt}-th conflict: the base backoff,
+	 * doubled per further conflict, at most the maximum.
+	 */
+	long backoffBound(int attempt) {
+		int doublings = Math.min(attempt - 1, 30);
+		return Math.min(maxBackoffMillis, retryBackoffMillis << doublings);
+	}
+
+	private <T> T updateOnce(String username, Function<Cart, T> change) {
+		User user = userRepository.findWithCartByUsername(username);
+		if (user == null) {
+			return null;
+		}
+		Cart cart = user.getCart();
+		// totals written before cart pricing was exact may have drifted from the lines
+		if (cart.recalculateTotal()) {
+			log.warn("Cart REPAIRED reason=total-did-not-match-lines user={}", username);
+		}
+		T result = change.apply(cart);
+		cartRepository.saveAndFlush(cart);
+		return result;
+	}
+
+	public CartContentionStats stats() {
+		return new CartContentionStats(mode.name().toLowerCase(Locale.ROOT), updates.sum(), conflicts.sum(),
+				failures.sum(), lockWaits.sum(), lockWaitNanos.sum() / 1_000_000);
+	}
+}
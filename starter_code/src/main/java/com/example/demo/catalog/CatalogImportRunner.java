@@ -0,0 +1,39 @@
+package com.example.demo.catalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports the file named by {@code catalog.import.file} at startup, for
+ * loading a catalog from the command line:
+ * {@code java -jar app.war --catalog.import.file=items.csv}. The format is
+ * taken from the file extension.
+ */
+@Component
+@ConditionalOnProperty("catalog.import.file")
+public class CatalogImportRunner implements ApplicationRunner {
+
+	private final CatalogImporter catalogImporter;
+	private final Path file;
+
+	public CatalogImportRunner(CatalogImporter catalogImporter, @Value("${catalog.import.file}") Path file) {
+		this.catalogImporter = catalogImporter;
+		this.file = file;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws IOException {
+		CatalogImporter.Format format = CatalogImporter.Format.forFileName(file.getFileName().toString());
+		try (InputStream in = Files.newInputStream(file)) {
+			catalogImporter.importItems(in, format);
+		}
+	}
+}
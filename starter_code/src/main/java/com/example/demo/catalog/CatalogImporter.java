@@ -0,0 +1,337 @@
+package com.example.demo.catalog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.cart.CartPricing;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.ImportResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Loads items from a CSV or NDJSON file and upserts them by SKU. The file is
+ * read one row at a time and written in transactions of {@code chunkSize}
+ * rows; the persistence context is cleared after every chunk, so memory use
+ * does not grow with the size of the file. Invalid rows are counted and
+ * skipped without failing the import.
+ * <p>
+ * CSV files need a header row naming at least the {@code sku}, {@code name}
+ * and {@code price} columns; {@code description} is optional. NDJSON files
+ * hold one object per line with the same properties, so the output of the
+ * NDJSON item export can be imported again.
+ * <p>
+ * Imports only run from the command line through {@link CatalogImportRunner}.
+ * Users have no roles, so an HTTP endpoint would let any customer rewrite
+ * catalog names and prices.
+ */
+@Service
+public class CatalogImporter {
+
+	private static final Logger log = LoggerFactory.getLogger(CatalogImporter.class);
+
+	static final int MAX_REPORTED_ERRORS = 100;
+	static final int MAX_SKU_LENGTH = 64;
+
+	private static final long PROGRESS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+	public enum Format {
+		CSV, NDJSON;
+
+		public static Format forFileName(String fileName) {
+			String lower = fileName.toLowerCase(Locale.ROOT);
+			if (lower.endsWith(".csv")) {
+				return CSV;
+			}
+			if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl")) {
+				return NDJSON;
+			}
+			throw new IllegalArgumentException("Unsupported import file: " + fileName);
+		}
+	}
+
+	public record Row(String sku, String name, BigDecimal price, String description) {
+	}
+
+	private final ItemRepository itemRepository;
+	private final ItemCatalog itemCatalog;
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectReader rowReader;
+	private final int chunkSize;
+	private final AtomicBoolean running = new AtomicBoolean();
+	private volatile ImportResult progress;
+
+	@Autowired
+	public CatalogImporter(ItemRepository itemRepository, ItemCatalog itemCatalog, EntityManager entityManager,
+			PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+			@Value("${catalog.import.chunk-size:1000}") int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("catalog.import.chunk-size must be at least 1");
+		}
+		this.itemRepository = itemRepository;
+		this.itemCatalog = itemCatalog;
+		this.entityManager = entityManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.rowReader = objectMapper.readerFor(Row.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Imports every row of {@code in} and returns the final counts. Only one
+	 * import runs at a time. Does not close {@code in}.
+	 *
+	 * @throws IllegalStateException if another import is running
+	 * @throws IllegalArgumentException if a CSV header lacks a required column
+	 */
+	public ImportResult importItems(InputStream in, Format format) throws IOException {
+		if (!running.compareAndSet(false, true)) {
+			throw new IllegalStateException("A catalog import is already running");
+		}
+		Run run = new Run();
+		try {
+			progress = run.snapshot(false);
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+			if (format == Format.CSV) {
+				readCsv(reader, run);
+			} else {
+				readNdjson(reader, run);
+			}
+			run.flush();
+			ImportResult result = run.snapshot(true);
+			progress = result;
+			log.info("CatalogImport SUCCESS rows={} inserted={} updated={} rejected={} ms={} rowsPerSecond={}",
+					result.rows(), result.inserted(), result.updated(), result.rejected(), result.elapsedMillis(),
+					result.rowsPerSecond());
+			return result;
+		} catch (IOException | RuntimeException e) {
+			progress = run.snapshot(true);
+			log.error("CatalogImport FAILURE rows={} reason=\"{}\"", run.rows, e.getMessage());
+			throw e;
+		} finally {
+			if (run.inserted + run.updated > 0) {
+				itemCatalog.invalidateAll();
+			}
+			running.set(false);
+		}
+	}
+
+	/**
+	 * Counts of the running import, or of the last one if none is running.
+	 */
+	public Optional<ImportResult> progress() {
+		return Optional.ofNullable(progress);
+	}
+
+	private void readCsv(BufferedReader reader, Run run) throws IOException {
+		CsvRecordReader csv = new CsvRecordReader(reader);
+		List<String> header = csv.next();
+		if (header == null) {
+			return;
+		}
+		Map<String, Integer> columns = new HashMap<>();
+		for (int i = 0; i < header.size(); i++) {
+			columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+		}
+		int sku = requiredColumn(columns, "sku");
+		int name = requiredColumn(columns, "name");
+		int price = requiredColumn(columns, "price");
+		int description = columns.getOrDefault("description", -1);
+
+		List<String> record;
+		while ((record = csv.next()) != null) {
+			long line = csv.line();
+			if (record.size() != header.size()) {
+				run.reject(line, "expected " + header.size() + " fields but found " + record.size());
+				continue;
+			}
+			BigDecimal parsedPrice = null;
+			String priceText = record.get(price).trim();
+			if (!priceText.isEmpty()) {
+				try {
+					parsedPrice = new BigDecimal(priceText);
+				} catch (NumberFormatException e) {
+					run.reject(line, "price is not a number");
+					continue;
+				}
+			}
+			run.accept(line, new Row(record.get(sku), record.get(name), parsedPrice,
+					description < 0 ? null : record.get(description)));
+		}
+	}
+
+	private static int requiredColumn(Map<String, Integer> columns, String name) {
+		Integer index = columns.get(name);
+		if (index == null) {
+			throw new IllegalArgumentException("CSV header has no " + name + " column");
+		}
+		return index;
+	}
+
+	private void readNdjson(BufferedReader reader, Run run) throws IOException {
+		long line = 0;
+		String text;
+		while ((text = reader.readLine()) != null) {
+			line++;
+			if (text.isBlank()) {
+				continue;
+			}
+			Row row;
+			try {
+				row = rowReader.readValue(text);
+			} catch (JsonProcessingException e) {
+				run.reject(line, "not a JSON item: " + e.getOriginalMessage());
+				continue;
+			}
+			run.accept(line, row);
+		}
+	}
+
+	/**
+	 * Returns why {@code row} cannot be imported, or {@code null} if it can.
+	 */
+	static String validate(Row row) {
+		if (row.sku() == null || row.sku().isBlank()) {
+			return "sku is required";
+		}
+		if (row.sku().length() > MAX_SKU_LENGTH) {
+			return "sku is longer than " + MAX_SKU_LENGTH + " characters";
+		}
+		if (row.name() == null || row.name().isBlank()) {
+			return "name is required";
+		}
+		if (row.price() == null) {
+			return "price is required";
+		}
+		if (row.price().signum() < 0) {
+			return "price must not be negative";
+		}
+		if (row.price().stripTrailingZeros().scale() > CartPricing.SCALE) {
+			return "price has more than " + CartPricing.SCALE + " decimal places";
+		}
+		return null;
+	}
+
+	/**
+	 * Upserts one chunk in its own transaction and returns how many rows were
+	 * new. A SKU repeated within the chunk updates the item the first
+	 * occurrence created.
+	 */
+	private int write(List<Row> rows) {
+		return transactionTemplate.execute(status -> {
+			Set<String> skus = new HashSet<>();
+			rows.forEach(row -> skus.add(row.sku()));
+			Map<String, Item> bySku = new HashMap<>();
+			itemRepository.findBySkuIn(skus).forEach(item -> bySku.put(item.getSku(), item));
+
+			List<Item> created = new ArrayList<>();
+			for (Row row : rows) {
+				Item item = bySku.get(row.sku());
+				if (item == null) {
+					item = new Item();
+					item.setSku(row.sku());
+					bySku.put(row.sku(), item);
+					created.add(item);
+				}
+				item.setName(row.name());
+				item.setPrice(CartPricing.money(row.price()));
+				item.setDescription(row.description() == null ? "" : row.description());
+			}
+			itemRepository.saveAll(created);
+			entityManager.flush();
+			entityManager.clear();
+			return created.size();
+		});
+	}
+
+	/**
+	 * State of one import; only touched by the importing thread.
+	 */
+	private final class Run {
+
+		private final long startNanos = System.nanoTime();
+		private final List<Row> chunk = new ArrayList<>(chunkSize);
+		private final List<String> errors = new ArrayList<>();
+		private long lastLogNanos = startNanos;
+		private long rows;
+		private long inserted;
+		private long updated;
+		private long rejected;
+
+		void accept(long line, Row row) {
+			Row trimmed = new Row(trim(row.sku()), trim(row.name()), row.price(), row.description());
+			String error = validate(trimmed);
+			if (error != null) {
+				reject(line, error);
+				return;
+			}
+			rows++;
+			chunk.add(trimmed);
+			if (chunk.size() >= chunkSize) {
+				flush();
+			}
+		}
+
+		void reject(long line, String error) {
+			rows++;
+			rejected++;
+			if (errors.size() < MAX_REPORTED_ERRORS) {
+				errors.add("line " + line + ": " + error);
+			}
+		}
+
+		void flush() {
+			if (chunk.isEmpty()) {
+				return;
+			}
+			int created = write(chunk);
+			inserted += created;
+			updated += chunk.size() - created;
+			chunk.clear();
+			progress = snapshot(false);
+
+			long now = System.nanoTime();
+			if (now - lastLogNanos >= PROGRESS_LOG_INTERVAL_NANOS) {
+				lastLogNanos = now;
+				log.info("CatalogImport PROGRESS rows={} written={} rejected={} rowsPerSecond={}",
+						rows, inserted + updated, rejected, progress.rowsPerSecond());
+			}
+		}
+
+		ImportResult snapshot(boolean finished) {
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+			return new ImportResult(finished, rows, inserted, updated, rejected, List.copyOf(errors), elapsedMillis);
+		}
+
+		private String trim(String value) {
+			return value == null ? null : value.trim();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.example.demo.catalog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 style CSV one record at a time. Fields may be quoted, and a
+ * quoted field may contain commas, doubled quotes and line breaks. Only the
+ * current record is held in memory.
+ */
+final class CsvRecordReader {
+
+	private final BufferedReader in;
+	private final StringBuilder field = new StringBuilder();
+	private long nextLine = 1;
+	private long line;
+
+	CsvRecordReader(BufferedReader in) {
+		this.in = in;
+	}
+
+	/**
+	 * Returns the fields of the next non-blank record, or {@code null} at the
+	 * end of the input.
+	 */
+	List<String> next() throws IOException {
+		List<String> record;
+		do {
+			record = read();
+		} while (record != null && record.size() == 1 && record.get(0).isEmpty());
+		return record;
+	}
+
+	/**
+	 * The line the last record returned by {@link #next()} started on.
+	 */
+	long line() {
+		return line;
+	}
+
+	private List<String> read() throws IOException {
+		line = nextLine;
+		List<String> fields = new ArrayList<>();
+		field.setLength(0);
+		boolean quoted = false;
+		boolean any = false;
+		int c;
+		while ((c = in.read()) != -1) {
+			any = true;
+			if (quoted) {
+				if (c == '"') {
+					in.mark(1);
+					int following = in.read();
+					if (following == '"') {
+						field.append('"');
+					} else {
+						quoted = false;
+						if (following != -1) {
+							in.reset();
+						}
+					}
+				} else {
+					if (c == '\n') {
+						nextLine++;
+					}
+					field.append((char) c);
+				}
+			} else if (c == '"' && field.length() == 0) {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else if (c == '\n') {
+				nextLine++;
+				fields.add(field.toString());
+				return fields;
+			} else if (c != '\r') {
+				field.append((char) c);
+			}
+		}
+		if (!any) {
+			return null;
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+}
@@ -0,0 +1,197 @@
+package com.example.demo.catalog;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.cache.CacheStats;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+
+/**
+ * Read-through cache in front of {@link ItemRepository}. The catalog changes
+ * rarely, so item reads from the item, cart and order paths are served from
+ * memory. Anything that writes items must go through {@link #save(Item)} or
+ * call one of the {@code invalidate} methods afterwards.
+ * <p>
+ * A load records the {@link #version()} it started at and stores its result
+ * only if no invalidation happened meanwhile, so a read that raced a change
+ * is returned to its caller but never cached.
+ */
+@Service
+public class ItemCatalog {
+
+	private final ItemRepository itemRepository;
+	private final BoundedCache<Long, Item> itemsById;
+	private final BoundedCache<String, List<Item>> itemsByName;
+	private final AtomicLong version = new AtomicLong();
+	private final ReentrantLock storeLock = new ReentrantLock();
+	private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+	@Autowired
+	public ItemCatalog(ItemRepository itemRepository,
+			@Value("${catalog.cache.max-size:10000}") int maxSize,
+			@Value("${catalog.cache.ttl-seconds:300}") long ttlSeconds) {
+		this.itemRepository = itemRepository;
+		Duration ttl = Duration.ofSeconds(ttlSeconds);
+		this.itemsById = new BoundedCache<>("catalog.items-by-id", maxSize, ttl);
+		this.itemsByName = new BoundedCache<>("catalog.items-by-name", maxSize, ttl);
+	}
+
+	public Optional<Item> findById(Long id) {
+		return Optional.ofNullable(load(itemsById, id, () -> itemRepository.findById(id).orElse(null)));
+	}
+
+	/**
+	 * Returns the items with the given ids, keyed by id. Ids that are not
+	 * cached are loaded with a single query; unknown ids are left out.
+	 */
+	public Map<Long, Item> findAllById(Collection<Long> ids) {
+		Map<Long, Item> found = new HashMap<>();
+		Set<Long> missing = new LinkedHashSet<>();
+		for (Long id : ids) {
+			if (found.containsKey(id) || missing.contains(id)) {
+				continue;
+			}
+			Item item = itemsById.get(id);
+			if (item != null) {
+				found.put(id, item);
+			} else {
+				missing.add(id);
+			}
+		}
+		if (!missing.isEmpty()) {
+			long loadedAt = version.get();
+			List<Item> loaded = itemRepository.findAllById(missing);
+			loaded.forEach(item -> found.put(item.getId(), item));
+			store(loadedAt, () -> loaded.forEach(item -> itemsById.put(item.getId(), item)));
+		}
+		return found;
+	}
+
+	public List<Item> findByName(String name) {
+		return load(itemsByName, name, () -> {
+			List<Item> items = itemRepository.findByName(name);
+			return items == null ? null : List.copyOf(items);
+		});
+	}
+
+	/**
+	 * {@link BoundedCache#getOrLoad} that only caches what was loaded if the
+	 * catalog did not change meanwhile.
+	 */
+	private <K, V> V load(BoundedCache<K, V> cache, K key, Supplier<V> loader) {
+		V value = cache.get(key);
+		if (value == null) {
+			long loadedAt = version.get();
+			value = loader.get();
+			if (value != null) {
+				V loaded = value;
+				store(loadedAt, () -> cache.put(key, loaded));
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Runs {@code put} unless the catalog was invalidated since
+	 * {@code loadedAt}. Invalidation takes the same lock, so a put can never
+	 * land between its clearing the caches and bumping the version.
+	 */
+	private void store(long loadedAt, Runnable put) {
+		storeLock.lock();
+		try {
+			if (version.get() == loadedAt) {
+				put.run();
+			}
+		} finally {
+			storeLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns up to {@code limit} items with an id greater than {@code afterId},
+	 * in id order. Pages are read from the database by primary-key seek and are
+	 * not cached.
+	 */
+	public List<Item> findPage(long afterId, int limit) {
+		return itemRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+	}
+
+	/**
+	 * Saves the item and drops every cached view that could contain it.
+	 */
+	public Item save(Item item) {
+		Item saved = itemRepository.save(item);
+		invalidate(saved.getId());
+		return saved;
+	}
+
+	/**
+	 * Counter bumped on every invalidation, so derived views such as the name
+	 * index can tell whether the catalog changed since they were built.
+	 */
+	public long version() {
+		return version.get();
+	}
+
+	/**
+	 * Entity tag for responses built from the catalog. It changes with every
+	 * {@link #version()} bump and differs between application starts, so a tag
+	 * handed out before a restart never matches. Read it before the items it
+	 * describes: a change in between then costs the client one extra full
+	 * response, instead of leaving it with stale items under a current tag.
+	 * <p>
+	 * The tag is weak because the same catalog is sent gzipped or not; a strong
+	 * tag would have to differ per encoding, and Tomcat does not compress
+	 * responses that carry one. If-None-Match compares tags weakly anyway.
+	 */
+	public String etag() {
+		return "W/\"" + epoch + "-" + version.get() + "\"";
+	}
+
+	/**
+	 * Drops the cached views that could contain item {@code id}. The caches are
+	 * cleared before the version is bumped, so once a reader sees the new
+	 * version it can no longer be served what the change replaced.
+	 */
+	public void invalidate(Long id) {
+		storeLock.lock();
+		try {
+			itemsById.invalidate(id);
+			itemsByName.invalidateAll();
+			version.incrementAndGet();
+		} finally {
+			storeLock.unlock();
+		}
+	}
+
+	public void invalidateAll() {
+		storeLock.lock();
+		try {
+			itemsById.invalidateAll();
+			itemsByName.invalidateAll();
+			version.incrementAndGet();
+		} finally {
+			storeLock.unlock();
+		}
+	}
+
+	public List<CacheStats> stats() {
+		return List.of(itemsById.stats(), itemsByName.stats());
+	}
+}
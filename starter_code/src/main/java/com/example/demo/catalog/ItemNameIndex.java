@@ -0,0 +1,154 @@
+package com.example.demo.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+
+/**
+ * Case-insensitive prefix search over item names. Keeps a sorted array of
+ * lower-cased names in memory, so a lookup is a binary search plus a short
+ * forward scan. When {@link ItemCatalog#version()} moves, the array is rebuilt
+ * on the application task executor and searches keep using the previous
+ * snapshot until the new one is ready; before the first snapshot exists they
+ * query the indexed {@code item.name_lower} column. The matching items are
+ * read through {@link ItemCatalog#findAllById}, so a search costs at most one
+ * query however many items it returns. With
+ * {@code catalog.search.in-memory=false} searches always go to that column.
+ */
+@Component
+public class ItemNameIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(ItemNameIndex.class);
+
+	private final ItemRepository itemRepository;
+	private final ItemCatalog itemCatalog;
+	private final TransactionTemplate readOnlyTransaction;
+	private final boolean inMemory;
+	private final Executor executor;
+
+	private final AtomicBoolean rebuilding = new AtomicBoolean();
+	private volatile Snapshot snapshot;
+
+	@Autowired
+	public ItemNameIndex(ItemRepository itemRepository, ItemCatalog itemCatalog,
+			PlatformTransactionManager transactionManager,
+			@Value("${catalog.search.in-memory:true}") boolean inMemory,
+			@Qualifier("applicationTaskExecutor") Executor executor) {
+		this.itemRepository = itemRepository;
+		this.itemCatalog = itemCatalog;
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.inMemory = inMemory;
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns up to {@code limit} items whose name starts with {@code prefix},
+	 * ignoring case, ordered by name.
+	 */
+	public List<Item> search(String prefix, int limit) {
+		String key = Item.normalizeName(prefix);
+		Snapshot current = inMemory ? current() : null;
+		if (current == null) {
+			return itemRepository.findByNameLowerStartingWithOrderByNameLowerAscIdAsc(key, Limit.of(limit));
+		}
+		long[] ids = current.idsWithPrefix(key, limit);
+		Map<Long, Item> found = itemCatalog.findAllById(Arrays.stream(ids).boxed().toList());
+		List<Item> items = new ArrayList<>(ids.length);
+		for (long id : ids) {
+			Item item = found.get(id);
+			if (item != null) {
+				items.add(item);
+			}
+		}
+		return items;
+	}
+
+	/**
+	 * The newest snapshot, or {@code null} if none has been built yet. Starts
+	 * a rebuild if the catalog changed since the snapshot and none is running.
+	 */
+	private Snapshot current() {
+		Snapshot current = snapshot;
+		if ((current == null || current.version != itemCatalog.version()) && rebuilding.compareAndSet(false, true)) {
+			try {
+				executor.execute(this::rebuild);
+			} catch (RejectedExecutionException e) {
+				rebuilding.set(false);
+				log.warn("ItemNameIndex REJECTED reason=\"{}\"", e.toString());
+			}
+			current = snapshot;
+		}
+		return current;
+	}
+
+	private void rebuild() {
+		try {
+			snapshot = build();
+		} catch (RuntimeException e) {
+			log.error("ItemNameIndex EXCEPTION", e);
+		} finally {
+			rebuilding.set(false);
+		}
+	}
+
+	private Snapshot build() {
+		long version = itemCatalog.version();
+		long started = System.nanoTime();
+		List<Object[]> rows = readOnlyTransaction.execute(status -> {
+			try (Stream<Object[]> stream = itemRepository.streamIdsAndLowerNames()) {
+				List<Object[]> collected = new ArrayList<>();
+				stream.forEach(collected::add);
+				return collected;
+			}
+		});
+		rows.sort(Comparator.<Object[], String>comparing(row -> (String) row[1])
+				.thenComparing(row -> (Long) row[0]));
+		String[] names = new String[rows.size()];
+		long[] ids = new long[rows.size()];
+		for (int i = 0; i < names.length; i++) {
+			ids[i] = (Long) rows.get(i)[0];
+			names[i] = (String) rows.get(i)[1];
+		}
+		log.info("ItemNameIndex built names={} ms={}", names.length, (System.nanoTime() - started) / 1_000_000);
+		return new Snapshot(version, names, ids);
+	}
+
+	private record Snapshot(long version, String[] names, long[] ids) {
+
+		long[] idsWithPrefix(String prefix, int limit) {
+			int from = Arrays.binarySearch(names, prefix);
+			if (from < 0) {
+				from = -from - 1;
+			}
+			// binarySearch may land on any of several equal names; step back to the first
+			while (from > 0 && names[from - 1].equals(prefix)) {
+				from--;
+			}
+			int to = from;
+			while (to < names.length && to - from < limit && names[to].startsWith(prefix)) {
+				to++;
+			}
+			return Arrays.copyOfRange(ids, from, to);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.demo.catalog;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Writes the whole catalog as newline-delimited JSON straight from a database
+ * cursor. Each item is detached once written, so memory use does not grow with
+ * the size of the catalog.
+ */
+@Component
+public class ItemNdjsonWriter {
+
+	public static final String MEDIA_TYPE = "application/x-ndjson";
+
+	private static final int FLUSH_EVERY = 500;
+
+	private final ItemRepository itemRepository;
+	private final EntityManager entityManager;
+	private final ObjectMapper objectMapper;
+	private final ObjectWriter itemWriter;
+
+	public ItemNdjsonWriter(ItemRepository itemRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+		this.itemRepository = itemRepository;
+		this.entityManager = entityManager;
+		this.objectMapper = objectMapper;
+		this.itemWriter = objectMapper.writerFor(Item.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	/**
+	 * Streams every item to {@code out}, one JSON object per line, and returns
+	 * the number of items written. Does not close {@code out}.
+	 */
+	@Transactional(readOnly = true)
+	public long writeAll(OutputStream out) throws IOException {
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		long written = 0;
+		try (Stream<Item> items = itemRepository.streamAll()) {
+			Iterator<Item> iterator = items.iterator();
+			while (iterator.hasNext()) {
+				Item item = iterator.next();
+				itemWriter.writeValue(generator, item);
+				generator.writeRaw('\n');
+				entityManager.detach(item);
+				if (++written % FLUSH_EVERY == 0) {
+					generator.flush();
+				}
+			}
+		}
+		generator.close();
+		return written;
+	}
+}
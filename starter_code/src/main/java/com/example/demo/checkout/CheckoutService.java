@@ -0,0 +1,152 @@
+package com.example.demo.checkout;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.cache.CacheStats;
+import com.example.demo.cart.CartService;
+import com.example.demo.metrics.AppMetrics;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.outbox.OrderSubmitted;
+import com.example.demo.outbox.Outbox;
+
+/**
+ * Turns a user's cart into an order. Writing the order and emptying the cart
+ * are one {@link CartService#update cart update}, so a cart change that lands
+ * while the order is being written makes the checkout start again from the new
+ * cart contents instead of losing the change.
+ * <p>
+ * Submissions that carry an idempotency key are remembered for a while; a
+ * repeat of the same key for the same user returns the original order without
+ * writing anything, and a repeat that arrives while the first is still running
+ * waits for it, for at most {@code order.idempotency.replay-wait-ms}.
+ * <p>
+ * Work that follows an order, such as logging it for reporting, does not
+ * happen here: an {@link OrderSubmitted} outbox event is written in the same
+ * transaction as the order and delivered in the background.
+ */
+@Service
+public class CheckoutService {
+
+	private static final Logger log = LoggerFactory.getLogger(CheckoutService.class);
+
+	private final CartService cartService;
+	private final OrderRepository orderRepository;
+	private final AppMetrics appMetrics;
+	private final Outbox outbox;
+	private final BoundedCache<SubmissionKey, CompletableFuture<UserOrder>> submissions;
+	private final long replayWaitMillis;
+
+	@Autowired
+	public CheckoutService(CartService cartService, OrderRepository orderRepository, AppMetrics appMetrics,
+			Outbox outbox, @Value("${order.idempotency.max-size:10000}") int maxKeys,
+			@Value("${order.idempotency.ttl-seconds:86400}") long ttlSeconds,
+			@Value("${order.idempotency.replay-wait-ms:30000}") long replayWaitMillis) {
+		this.cartService = cartService;
+		this.orderRepository = orderRepository;
+		this.appMetrics = appMetrics;
+		this.outbox = outbox;
+		this.submissions = new BoundedCache<>("order.idempotency-keys", maxKeys, Duration.ofSeconds(ttlSeconds));
+		this.replayWaitMillis = replayWaitMillis;
+	}
+
+	/**
+	 * Checks out the user's cart once per {@code idempotencyKey}. Without a key
+	 * every call checks out. Returns {@code null} if the user does not exist.
+	 *
+	 * @throws EmptyCartException if the cart has nothing in it
+	 * @throws SubmissionInProgressException if the first submission of the key did not finish in time
+	 * @throws OptimisticLockingFailureException if the cart kept changing for every attempt
+	 */
+	public UserOrder submit(String username, String idempotencyKey) {
+		if (idempotencyKey == null || idempotencyKey.isBlank()) {
+			return checkout(username);
+		}
+		SubmissionKey key = new SubmissionKey(username, idempotencyKey);
+		CompletableFuture<UserOrder> submission = new CompletableFuture<>();
+		CompletableFuture<UserOrder> earlier = submissions.putIfAbsent(key, submission);
+		if (earlier != null) {
+			log.info("Checkout REPLAY user={} idempotencyKey={}", username, idempotencyKey);
+			return awaitEarlier(earlier, username, idempotencyKey);
+		}
+		try {
+			UserOrder order = checkout(username);
+			if (order == null) {
+				submissions.invalidate(key);
+			}
+			submission.complete(order);
+			return order;
+		} catch (Throwable e) {
+			// failed submissions are not remembered, so the client can retry with the same key;
+			// errors complete the future too, or replays would wait on it until they time out
+			submissions.invalidate(key);
+			submission.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	private UserOrder awaitEarlier(CompletableFuture<UserOrder> earlier, String username, String idempotencyKey) {
+		try {
+			return earlier.get(replayWaitMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			log.warn("Checkout REPLAY_TIMEOUT user={} idempotencyKey={} waitMs={}", username, idempotencyKey,
+					replayWaitMillis);
+			throw new SubmissionInProgressException("Submission " + idempotencyKey + " is still in progress");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SubmissionInProgressException("Interrupted waiting for submission " + idempotencyKey);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Writes an order from the user's cart and empties the cart. Returns
+	 * {@code null} if the user does not exist. Only written orders reach the
+	 * order histograms, so idempotent replays are not counted twice.
+	 *
+	 * @throws EmptyCartException if the cart has nothing in it, in which case
+	 *         no order or outbox event is written
+	 */
+	public UserOrder checkout(String username) {
+		UserOrder written = cartService.update(username, cart -> {
+			if (cart.getLines() == null || cart.getLines().isEmpty()) {
+				throw new EmptyCartException("Cart of " + username + " is empty");
+			}
+			UserOrder order = UserOrder.createFromCart(cart);
+			orderRepository.save(order);
+			outbox.add(OrderSubmitted.TYPE, order.getId(), OrderSubmitted.of(order));
+			cart.clear();
+			return order;
+		});
+		if (written != null) {
+			appMetrics.order(written);
+		}
+		return written;
+	}
+
+	public CacheStats stats() {
+		return submissions.stats();
+	}
+
+	private record SubmissionKey(String username, String idempotencyKey) {
+	}
+}
@@ -0,0 +1,12 @@
+package com.example.demo.checkout;
+
+/**
+ * Thrown when a checkout finds nothing in the cart, typically a retry of a
+ * submission that already emptied it. Mapped to 400 Bad Request.
+ */
+public class EmptyCartException extends RuntimeException {
+
+	public EmptyCartException(String msg) {
+		super(msg);
+	}
+}
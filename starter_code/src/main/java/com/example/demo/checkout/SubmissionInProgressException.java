@@ -0,0 +1,13 @@
+package com.example.demo.checkout;
+
+/**
+ * Thrown when a repeated idempotency key is still being checked out by the
+ * first request after the replay wait ran out. Mapped to 409 Conflict; the
+ * client can retry the same key later.
+ */
+public class SubmissionInProgressException extends RuntimeException {
+
+	public SubmissionInProgressException(String msg) {
+		super(msg);
+	}
+}
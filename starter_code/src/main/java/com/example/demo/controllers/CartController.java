@@ -1,11 +1,14 @@
 package com.example.demo.controllers;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.IntStream;
 
 
-import org.apache.log4j.Logger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,55 +16,66 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.cart.CartService;
+import com.example.demo.catalog.ItemCatalog;
+import com.example.demo.metrics.AppMetrics;
+import com.example.demo.metrics.AppMetrics.Outcome;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
-import com.example.demo.model.persistence.User;
-import com.example.demo.model.persistence.repositories.CartRepository;
-import com.example.demo.model.persistence.repositories.ItemRepository;
-import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.BatchCartRequest;
+import com.example.demo.model.requests.CartOperation;
 import com.example.demo.model.requests.ModifyCartRequest;
 
 @RestController
 @RequestMapping("/api/cart")
 public class CartController {
 
-	private static final Logger log = Logger.getLogger(CartController.class);
+	static final int MAX_BATCH_OPERATIONS = 500;
+
+	private static final Logger log = LoggerFactory.getLogger(CartController.class);
 	@Autowired
-	private UserRepository userRepository;
+	private CartService cartService;
 	
 	@Autowired
-	private CartRepository cartRepository;
-	
+	private ItemCatalog itemCatalog;
+
 	@Autowired
-	private ItemRepository itemRepository;
+	private AppMetrics appMetrics;
 	
 	@PostMapping("/addToCart")
 	public ResponseEntity<Cart> addTocart(@RequestBody ModifyCartRequest request) {
 		try {
-			log.info("AddToCart request received for user: " + request.getUsername() + ", itemId: " + request.getItemId() + ", quantity: " + request.getQuantity());
+			log.debug("AddToCart REQUEST user={} itemId={} quantity={}", request.getUsername(), request.getItemId(), request.getQuantity());
 
-			User user = userRepository.findByUsername(request.getUsername());
-			if (user == null) {
-				log.error("AddToCart FAILURE - User not found: " + request.getUsername());
+			Optional<Item> item = itemCatalog.findById(request.getItemId());
+			if (!item.isPresent()) {
+				log.error("AddToCart FAILURE reason=item-not-found itemId={}", request.getItemId());
+				appMetrics.outcome("AddToCart", Outcome.FAILURE);
 				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 			}
 
-			Optional<Item> item = itemRepository.findById(request.getItemId());
-			if (!item.isPresent()) {
-				log.error("AddToCart FAILURE - Item not found: " + request.getItemId());
+			Cart cart = cartService.update(request.getUsername(), userCart -> {
+				userCart.addItem(item.get(), request.getQuantity());
+				return userCart;
+			});
+			if (cart == null) {
+				log.error("AddToCart FAILURE reason=user-not-found user={}", request.getUsername());
+				appMetrics.outcome("AddToCart", Outcome.FAILURE);
 				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 			}
 
-			Cart cart = user.getCart();
-			IntStream.range(0, request.getQuantity())
-					.forEach(i -> cart.addItem(item.get()));
-			cartRepository.save(cart);
-
-			log.info("AddToCart SUCCESS - Added " + request.getQuantity() + " x " + item.get().getName() + " to cart for user: " + request.getUsername());
+			log.info("AddToCart SUCCESS user={} itemId={} quantity={}", request.getUsername(), request.getItemId(), request.getQuantity());
+			appMetrics.outcome("AddToCart", Outcome.SUCCESS);
+			appMetrics.cart(cart);
 			return ResponseEntity.ok(cart);
 
+		} catch (OptimisticLockingFailureException e) {
+			log.warn("AddToCart CONFLICT user={}", request.getUsername());
+			appMetrics.outcome("AddToCart", Outcome.CONFLICT);
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
 		} catch (Exception e) {
-			log.error("AddToCart EXCEPTION - Error adding to cart for user: " + request.getUsername() + " - Exception: " + e.getMessage());
+			log.error("AddToCart EXCEPTION user={}", request.getUsername(), e);
+			appMetrics.outcome("AddToCart", Outcome.EXCEPTION);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 		}
 	}
@@ -69,32 +83,110 @@ public class CartController {
 	@PostMapping("/removeFromCart")
 	public ResponseEntity<Cart> removeFromcart(@RequestBody ModifyCartRequest request) {
 		try {
-			log.info("RemoveFromCart request received for user: " + request.getUsername() + ", itemId: " + request.getItemId() + ", quantity: " + request.getQuantity());
+			log.debug("RemoveFromCart REQUEST user={} itemId={} quantity={}", request.getUsername(), request.getItemId(), request.getQuantity());
 
-			User user = userRepository.findByUsername(request.getUsername());
-			if (user == null) {
-				log.error("RemoveFromCart FAILURE - User not found: " + request.getUsername());
+			Optional<Item> item = itemCatalog.findById(request.getItemId());
+			if (!item.isPresent()) {
+				log.error("RemoveFromCart FAILURE reason=item-not-found itemId={}", request.getItemId());
+				appMetrics.outcome("RemoveFromCart", Outcome.FAILURE);
 				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 			}
 
-			Optional<Item> item = itemRepository.findById(request.getItemId());
-			if (!item.isPresent()) {
-				log.error("RemoveFromCart FAILURE - Item not found: " + request.getItemId());
+			Cart cart = cartService.update(request.getUsername(), userCart -> {
+				userCart.removeItem(item.get(), request.getQuantity());
+				return userCart;
+			});
+			if (cart == null) {
+				log.error("RemoveFromCart FAILURE reason=user-not-found user={}", request.getUsername());
+				appMetrics.outcome("RemoveFromCart", Outcome.FAILURE);
 				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 			}
 
-			Cart cart = user.getCart();
-			IntStream.range(0, request.getQuantity())
-					.forEach(i -> cart.removeItem(item.get()));
-			cartRepository.save(cart);
+			log.info("RemoveFromCart SUCCESS user={} itemId={} quantity={}", request.getUsername(), request.getItemId(), request.getQuantity());
+			appMetrics.outcome("RemoveFromCart", Outcome.SUCCESS);
+			appMetrics.cart(cart);
+			return ResponseEntity.ok(cart);
+
+		} catch (OptimisticLockingFailureException e) {
+			log.warn("RemoveFromCart CONFLICT user={}", request.getUsername());
+			appMetrics.outcome("RemoveFromCart", Outcome.CONFLICT);
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		} catch (Exception e) {
+			log.error("RemoveFromCart EXCEPTION user={}", request.getUsername(), e);
+			appMetrics.outcome("RemoveFromCart", Outcome.EXCEPTION);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
+	/**
+	 * Applies a list of add, remove and set operations to the cart in order,
+	 * with one item lookup and one cart save for the whole list. Nothing is
+	 * applied if any operation is invalid or names an unknown item.
+	 */
+	@PostMapping("/batch")
+	public ResponseEntity<Cart> batch(@RequestBody BatchCartRequest request) {
+		List<CartOperation> operations = request.getOperations();
+		if (operations == null || operations.isEmpty()) {
+			return rejectBatch(request, "no-operations");
+		}
+		if (operations.size() > MAX_BATCH_OPERATIONS) {
+			return rejectBatch(request, "too-many-operations");
+		}
+		for (CartOperation operation : operations) {
+			if (operation == null || operation.getOp() == null || operation.getItemId() == null
+					|| operation.getQuantity() < 0) {
+				return rejectBatch(request, "invalid-operation");
+			}
+		}
+		try {
+			log.debug("CartBatch REQUEST user={} operations={}", request.getUsername(), operations.size());
+
+			Map<Long, Item> items = itemCatalog.findAllById(operations.stream().map(CartOperation::getItemId).toList());
+			for (CartOperation operation : operations) {
+				if (!items.containsKey(operation.getItemId())) {
+					log.error("CartBatch FAILURE reason=item-not-found itemId={}", operation.getItemId());
+					appMetrics.outcome("CartBatch", Outcome.FAILURE);
+					return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+				}
+			}
+
+			Cart cart = cartService.update(request.getUsername(), userCart -> {
+				for (CartOperation operation : operations) {
+					Item item = items.get(operation.getItemId());
+					switch (operation.getOp()) {
+					case ADD -> userCart.addItem(item, operation.getQuantity());
+					case REMOVE -> userCart.removeItem(item, operation.getQuantity());
+					case SET -> userCart.setQuantity(item, operation.getQuantity());
+					}
+				}
+				return userCart;
+			});
+			if (cart == null) {
+				log.error("CartBatch FAILURE reason=user-not-found user={}", request.getUsername());
+				appMetrics.outcome("CartBatch", Outcome.FAILURE);
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			}
 
-			log.info("RemoveFromCart SUCCESS - Removed " + request.getQuantity() + " x " + item.get().getName() + " from cart for user: " + request.getUsername());
+			log.info("CartBatch SUCCESS user={} operations={}", request.getUsername(), operations.size());
+			appMetrics.outcome("CartBatch", Outcome.SUCCESS);
+			appMetrics.cart(cart);
 			return ResponseEntity.ok(cart);
 
+		} catch (OptimisticLockingFailureException e) {
+			log.warn("CartBatch CONFLICT user={}", request.getUsername());
+			appMetrics.outcome("CartBatch", Outcome.CONFLICT);
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
 		} catch (Exception e) {
-			log.error("RemoveFromCart EXCEPTION - Error removing from cart for user: " + request.getUsername() + " - Exception: " + e.getMessage());
+			log.error("CartBatch EXCEPTION user={}", request.getUsername(), e);
+			appMetrics.outcome("CartBatch", Outcome.EXCEPTION);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 		}
 	}
-		
+
+	private ResponseEntity<Cart> rejectBatch(BatchCartRequest request, String reason) {
+		log.error("CartBatch FAILURE reason={} user={} operations={}", reason, request.getUsername(),
+				request.getOperations() == null ? 0 : request.getOperations().size());
+		appMetrics.outcome("CartBatch", Outcome.FAILURE);
+		return ResponseEntity.badRequest().build();
+	}
 }
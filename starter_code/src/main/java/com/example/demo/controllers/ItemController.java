@@ -1,37 +1,123 @@
 package com.example.demo.controllers;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.example.demo.catalog.ItemCatalog;
+import com.example.demo.catalog.ItemNameIndex;
+import com.example.demo.catalog.ItemNdjsonWriter;
 import com.example.demo.model.persistence.Item;
-import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.CursorPage;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/api/item")
 public class ItemController {
 
+	static final int MAX_PAGE_SIZE = 1000;
+	static final int MAX_LISTED_ITEMS = MAX_PAGE_SIZE;
+	static final int MAX_SEARCH_RESULTS = 100;
+
+	/**
+	 * Lets clients keep catalog responses but makes them revalidate with the
+	 * catalog ETag every time. Without a Cache-Control header of our own,
+	 * Spring Security sends no-store and clients never send If-None-Match.
+	 */
+	private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
 	@Autowired
-	private ItemRepository itemRepository;
-	
+	private ItemCatalog itemCatalog;
+
+	@Autowired
+	private ItemNdjsonWriter itemNdjsonWriter;
+
+	@Autowired
+	private ItemNameIndex itemNameIndex;
+
+	/**
+	 * The first {@link #MAX_LISTED_ITEMS} items in id order. A larger catalog
+	 * is not loaded whole: the response then carries a {@code Link} header with
+	 * {@code rel="next"} pointing at the keyset page that continues it. Use
+	 * {@code ?limit} pages or the NDJSON stream to read every item.
+	 */
 	@GetMapping
-	public ResponseEntity<List<Item>> getItems() {
-		return ResponseEntity.ok(itemRepository.findAll());
+	public ResponseEntity<List<Item>> getItems(WebRequest request) {
+		String etag = itemCatalog.etag();
+		if (request.checkNotModified(etag)) {
+			return notModified();
+		}
+		List<Item> items = itemCatalog.findPage(0, MAX_LISTED_ITEMS + 1);
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE);
+		if (items.size() > MAX_LISTED_ITEMS) {
+			items = items.subList(0, MAX_LISTED_ITEMS);
+			long after = items.get(MAX_LISTED_ITEMS - 1).getId();
+			response.header(HttpHeaders.LINK,
+					"</api/item?after=" + after + "&limit=" + MAX_PAGE_SIZE + ">; rel=\"next\"");
+		}
+		return response.body(items);
+	}
+
+	@GetMapping(params = "limit")
+	public ResponseEntity<CursorPage<Item>> getItemPage(@RequestParam(defaultValue = "0") long after,
+			@RequestParam int limit) {
+		if (limit < 1 || limit > MAX_PAGE_SIZE) {
+			return ResponseEntity.badRequest().build();
+		}
+		List<Item> items = itemCatalog.findPage(after, limit);
+		return ResponseEntity.ok(CursorPage.of(items, limit, Item::getId));
+	}
+
+	@GetMapping(produces = ItemNdjsonWriter.MEDIA_TYPE)
+	public void streamItems(HttpServletResponse response) throws IOException {
+		response.setContentType(ItemNdjsonWriter.MEDIA_TYPE);
+		itemNdjsonWriter.writeAll(response.getOutputStream());
+	}
+	
+	@GetMapping("/search")
+	public ResponseEntity<List<Item>> searchItems(@RequestParam("q") String query,
+			@RequestParam(defaultValue = "20") int limit) {
+		if (query.isBlank() || limit < 1 || limit > MAX_SEARCH_RESULTS) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(itemNameIndex.search(query, limit));
 	}
 	
 	@GetMapping("/{id}")
-	public ResponseEntity<Item> getItemById(@PathVariable Long id) {
-		return ResponseEntity.of(itemRepository.findById(id));
+	public ResponseEntity<Item> getItemById(@PathVariable Long id, WebRequest request) {
+		String etag = itemCatalog.etag();
+		if (request.checkNotModified(etag)) {
+			return notModified();
+		}
+		return itemCatalog.findById(id)
+				.map(item -> ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(item))
+				.orElseGet(() -> ResponseEntity.notFound().build());
 	}
 	
+	/**
+	 * The 304 for a client that already holds the current catalog; built
+	 * before anything is read from the catalog or the database.
+	 * {@link WebRequest#checkNotModified(String)} has already set the ETag.
+	 */
+	private static <T> ResponseEntity<T> notModified() {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+	}
+
 	@GetMapping("/name/{name}")
 	public ResponseEntity<List<Item>> getItemsByName(@PathVariable String name) {
-		List<Item> items = itemRepository.findByName(name);
+		List<Item> items = itemCatalog.findByName(name);
 		return items == null || items.isEmpty() ? ResponseEntity.notFound().build()
 				: ResponseEntity.ok(items);
 			
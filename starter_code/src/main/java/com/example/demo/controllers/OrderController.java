@@ -1,55 +1,87 @@
 package com.example.demo.controllers;
 
 import java.util.List;
+import java.util.Optional;
 
 
-import org.apache.log4j.Logger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.archive.OrderHistory;
+import com.example.demo.checkout.CheckoutService;
+import com.example.demo.checkout.EmptyCartException;
+import com.example.demo.checkout.SubmissionInProgressException;
+import com.example.demo.metrics.AppMetrics;
+import com.example.demo.metrics.AppMetrics.Outcome;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
-import com.example.demo.model.persistence.repositories.OrderRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.CursorPage;
+import com.example.demo.model.responses.OrderSummary;
 
 @RestController
 @RequestMapping("/api/order")
 public class OrderController {
 
+	static final int MAX_PAGE_SIZE = 100;
 
-	private static final Logger log = Logger.getLogger(OrderController.class);
+	private static final Logger log = LoggerFactory.getLogger(OrderController.class);
 	@Autowired
 	private UserRepository userRepository;
 	
 	@Autowired
-	private OrderRepository orderRepository;
+	private OrderHistory orderHistory;
+
+	@Autowired
+	private CheckoutService checkoutService;
+
+	@Autowired
+	private AppMetrics appMetrics;
 	
 	
 	@PostMapping("/submit/{username}")
-	public ResponseEntity<UserOrder> submit(@PathVariable String username) {
+	public ResponseEntity<UserOrder> submit(@PathVariable String username,
+			@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 		try {
-			log.info("Order request received for username: " + username);
+			log.debug("Order REQUEST user={}", username);
 
-			User user = userRepository.findByUsername(username);
-			if (user == null) {
-				log.error("Order FAILURE - User not found: " + username);
+			UserOrder order = checkoutService.submit(username, idempotencyKey);
+			if (order == null) {
+				log.error("Order FAILURE reason=user-not-found user={}", username);
+				appMetrics.outcome("Order", Outcome.FAILURE);
 				return ResponseEntity.notFound().build();
 			}
 
-			UserOrder order = UserOrder.createFromCart(user.getCart());
-			orderRepository.save(order);
-
-			log.info("Order SUCCESS - Order submitted for user: " + username + " with " + order.getItems().size() + " items, total: " + order.getTotal());
+			log.info("Order SUCCESS user={} orderId={}", username, order.getId());
+			appMetrics.outcome("Order", Outcome.SUCCESS);
 			return ResponseEntity.ok(order);
 
+		} catch (EmptyCartException e) {
+			log.warn("Order FAILURE reason=empty-cart user={}", username);
+			appMetrics.outcome("Order", Outcome.FAILURE);
+			return ResponseEntity.badRequest().build();
+		} catch (SubmissionInProgressException e) {
+			log.warn("Order CONFLICT reason=in-progress user={}", username);
+			appMetrics.outcome("Order", Outcome.CONFLICT);
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		} catch (OptimisticLockingFailureException e) {
+			log.warn("Order CONFLICT user={}", username);
+			appMetrics.outcome("Order", Outcome.CONFLICT);
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
 		} catch (Exception e) {
-			log.error("Order EXCEPTION - Error submitting order for user: " + username + " - Exception: " + e.getMessage());
+			log.error("Order EXCEPTION user={}", username, e);
+			appMetrics.outcome("Order", Outcome.EXCEPTION);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 		}
 	}
@@ -59,16 +91,74 @@ public class OrderController {
 		try {
 			User user = userRepository.findByUsername(username);
 			if (user == null) {
-				log.warn("OrderHistory FAILURE - User not found: " + username);
+				log.warn("OrderHistory FAILURE reason=user-not-found user={}", username);
+				appMetrics.outcome("OrderHistory", Outcome.FAILURE);
 				return ResponseEntity.notFound().build();
 			}
 
-			List<UserOrder> orders = orderRepository.findByUser(user);
-			log.info("OrderHistory SUCCESS - Retrieved " + orders.size() + " orders for user: " + username);
+			List<UserOrder> orders = orderHistory.findByUser(user);
+			log.info("OrderHistory SUCCESS user={} orders={}", username, orders.size());
+			appMetrics.outcome("OrderHistory", Outcome.SUCCESS);
 			return ResponseEntity.ok(orders);
 
 		} catch (Exception e) {
-			log.error("OrderHistory EXCEPTION - Error retrieving order history for user: " + username + " - Exception: " + e.getMessage());
+			log.error("OrderHistory EXCEPTION user={}", username, e);
+			appMetrics.outcome("OrderHistory", Outcome.EXCEPTION);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
+	@GetMapping(value = "/history/{username}", params = "limit")
+	public ResponseEntity<CursorPage<OrderSummary>> getOrderHistoryPage(@PathVariable String username,
+			@RequestParam(required = false) Long before, @RequestParam int limit) {
+		if (limit < 1 || limit > MAX_PAGE_SIZE) {
+			return ResponseEntity.badRequest().build();
+		}
+		try {
+			User user = userRepository.findByUsername(username);
+			if (user == null) {
+				log.warn("OrderHistory FAILURE reason=user-not-found user={}", username);
+				appMetrics.outcome("OrderHistory", Outcome.FAILURE);
+				return ResponseEntity.notFound().build();
+			}
+
+			List<OrderSummary> orders = orderHistory.findSummariesByUserBefore(user,
+					before == null ? Long.MAX_VALUE : before, limit);
+			log.info("OrderHistory SUCCESS user={} orders={} paged=true", username, orders.size());
+			appMetrics.outcome("OrderHistory", Outcome.SUCCESS);
+			return ResponseEntity.ok(CursorPage.of(orders, limit, OrderSummary::id));
+
+		} catch (Exception e) {
+			log.error("OrderHistory EXCEPTION user={}", username, e);
+			appMetrics.outcome("OrderHistory", Outcome.EXCEPTION);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
+	@GetMapping("/history/{username}/{orderId}")
+	public ResponseEntity<UserOrder> getOrder(@PathVariable String username, @PathVariable Long orderId) {
+		try {
+			User user = userRepository.findByUsername(username);
+			if (user == null) {
+				log.warn("OrderDetail FAILURE reason=user-not-found user={}", username);
+				appMetrics.outcome("OrderDetail", Outcome.FAILURE);
+				return ResponseEntity.notFound().build();
+			}
+
+			Optional<UserOrder> order = orderHistory.findByIdAndUser(orderId, user);
+			if (order.isEmpty()) {
+				log.warn("OrderDetail FAILURE reason=order-not-found user={} orderId={}", username, orderId);
+				appMetrics.outcome("OrderDetail", Outcome.FAILURE);
+				return ResponseEntity.notFound().build();
+			}
+
+			log.info("OrderDetail SUCCESS user={} orderId={}", username, orderId);
+			appMetrics.outcome("OrderDetail", Outcome.SUCCESS);
+			return ResponseEntity.ok(order.get());
+
+		} catch (Exception e) {
+			log.error("OrderDetail EXCEPTION user={} orderId={}", username, orderId, e);
+			appMetrics.outcome("OrderDetail", Outcome.EXCEPTION);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 		}
 	}
@@ -0,0 +1,115 @@
+package com.example.demo.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.cache.CacheStats;
+import com.example.demo.cart.CartContentionStats;
+import com.example.demo.cart.CartService;
+import com.example.demo.catalog.ItemCatalog;
+import com.example.demo.checkout.CheckoutService;
+import com.example.demo.model.responses.OutboxStats;
+import com.example.demo.model.responses.PoolStats;
+import com.example.demo.outbox.OutboxDispatcher;
+import com.example.demo.security.UserDetailsServiceImpl;
+import com.example.demo.security.VerifiedTokenCache;
+import com.example.demo.threads.PinningStats;
+import com.example.demo.threads.VirtualThreadPinningMonitor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+	@Autowired
+	private ItemCatalog itemCatalog;
+
+	@Autowired
+	private VerifiedTokenCache verifiedTokenCache;
+
+	@Autowired
+	private UserDetailsServiceImpl userDetailsService;
+
+	@Autowired
+	private CheckoutService checkoutService;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private OutboxDispatcher outboxDispatcher;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+
+	@Value("${spring.datasource.hikari.pool-name:app-pool}")
+	private String poolName;
+
+	@GetMapping("/caches")
+	public ResponseEntity<List<CacheStats>> getCacheStats() {
+		List<CacheStats> stats = new ArrayList<>(itemCatalog.stats());
+		stats.add(verifiedTokenCache.stats());
+		stats.add(userDetailsService.stats());
+		stats.add(checkoutService.stats());
+		return ResponseEntity.ok(stats);
+	}
+
+	@GetMapping("/cart")
+	public ResponseEntity<CartContentionStats> getCartStats() {
+		return ResponseEntity.ok(cartService.stats());
+	}
+
+	@GetMapping("/outbox")
+	public ResponseEntity<OutboxStats> getOutboxStats() {
+		return ResponseEntity.ok(outboxDispatcher.stats());
+	}
+
+	/**
+	 * Reads the pool from the meters Hikari publishes; the same values are
+	 * under {@code /actuator/metrics/hikaricp.connections.*}.
+	 */
+	@GetMapping("/pool")
+	public ResponseEntity<PoolStats> getPoolStats() {
+		Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", poolName).timer();
+		if (acquire == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(new PoolStats(poolName,
+				poolGauge("hikaricp.connections.active"),
+				poolGauge("hikaricp.connections.idle"),
+				poolGauge("hikaricp.connections.pending"),
+				poolGauge("hikaricp.connections.max"),
+				acquire.count(),
+				acquire.mean(TimeUnit.MILLISECONDS),
+				acquire.max(TimeUnit.MILLISECONDS)));
+	}
+
+	/**
+	 * Only available when requests run on virtual threads.
+	 */
+	@GetMapping("/pinning")
+	public ResponseEntity<PinningStats> getPinningStats() {
+		VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+		return monitor == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(monitor.stats());
+	}
+
+	private int poolGauge(String name) {
+		Gauge gauge = meterRegistry.find(name).tag("pool", poolName).gauge();
+		return gauge == null ? 0 : (int) gauge.value();
+	}
+}
@@ -1,6 +1,7 @@
 package com.example.demo.controllers;
 
-import org.apache.log4j.Logger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,17 +13,22 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.metrics.AppMetrics;
+import com.example.demo.metrics.AppMetrics.Outcome;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.security.PasswordHashingLimiter;
+import com.example.demo.security.PasswordHashingThrottledException;
+import com.example.demo.security.UserDetailsServiceImpl;
 
 @RestController
 @RequestMapping("/api/user")
 public class UserController {
 
-	private static final Logger log = Logger.getLogger(UserController.class);
+	private static final Logger log = LoggerFactory.getLogger(UserController.class);
 	@Autowired
 	private UserRepository userRepository;
 	
@@ -32,6 +38,15 @@ public class UserController {
 	@Autowired
 	private BCryptPasswordEncoder bCryptPasswordEncoder;
 
+	@Autowired
+	private PasswordHashingLimiter passwordHashingLimiter;
+
+	@Autowired
+	private UserDetailsServiceImpl userDetailsService;
+
+	@Autowired
+	private AppMetrics appMetrics;
+
 	@GetMapping("/id/{id}")
 	public ResponseEntity<User> findById(@PathVariable Long id) {
 		return ResponseEntity.of(userRepository.findById(id));
@@ -48,7 +63,7 @@ public class UserController {
 		try {
 			User user = new User();
 			user.setUsername(createUserRequest.getUsername());
-			log.info("CreateUser request received for username: " + createUserRequest.getUsername());
+			log.debug("CreateUser REQUEST user={}", createUserRequest.getUsername());
 
 			Cart cart = new Cart();
 			cartRepository.save(cart);
@@ -56,23 +71,32 @@ public class UserController {
 
 			// Password validation
 			if (createUserRequest.getPassword().length() < 7) {
-				log.error("CreateUser FAILURE - Password too short for username: " + createUserRequest.getUsername());
+				log.error("CreateUser FAILURE reason=password-too-short user={}", createUserRequest.getUsername());
+				appMetrics.outcome("CreateUser", Outcome.FAILURE);
 				return ResponseEntity.badRequest().build();
 			}
 
 			if (!createUserRequest.getPassword().equals(createUserRequest.getConfirmPassword())) {
-				log.error("CreateUser FAILURE - Password mismatch for username: " + createUserRequest.getUsername());
+				log.error("CreateUser FAILURE reason=password-mismatch user={}", createUserRequest.getUsername());
+				appMetrics.outcome("CreateUser", Outcome.FAILURE);
 				return ResponseEntity.badRequest().build();
 			}
 
-			user.setPassword(bCryptPasswordEncoder.encode(createUserRequest.getPassword()));
+			user.setPassword(passwordHashingLimiter.run(() -> bCryptPasswordEncoder.encode(createUserRequest.getPassword())));
 			userRepository.save(user);
+			userDetailsService.evict(user.getUsername());
 
-			log.info("CreateUser SUCCESS - User created successfully: " + user.getUsername());
+			log.info("CreateUser SUCCESS user={}", user.getUsername());
+			appMetrics.outcome("CreateUser", Outcome.SUCCESS);
 			return ResponseEntity.ok(user);
 
+		} catch (PasswordHashingThrottledException e) {
+			log.warn("CreateUser THROTTLED reason=hashing-capacity-exhausted user={}", createUserRequest.getUsername());
+			appMetrics.outcome("CreateUser", Outcome.THROTTLED);
+			return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
 		} catch (Exception e) {
-			log.error("CreateUser EXCEPTION - Error creating user: " + createUserRequest.getUsername() + " - Exception: " + e.getMessage());
+			log.error("CreateUser EXCEPTION user={}", createUserRequest.getUsername(), e);
+			appMetrics.outcome("CreateUser", Outcome.EXCEPTION);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 		}
 	}
@@ -0,0 +1,94 @@
+package com.example.demo.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.UserOrder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Application meters that Spring's own request instrumentation does not
+ * cover. {@code api.outcomes} counts each API operation by outcome, using the
+ * same operation names as the log events, so dashboards no longer have to
+ * scrape the log for SUCCESS and FAILURE lines. The cart and order
+ * distributions publish histogram buckets instead of computing percentiles
+ * in-process: recording is a bucket increment, and quantiles are worked out
+ * by Prometheus at query time.
+ */
+@Component
+public class AppMetrics {
+
+	public enum Outcome {
+		SUCCESS, FAILURE, CONFLICT, THROTTLED, EXCEPTION;
+
+		private final String tag = name().toLowerCase(Locale.ROOT);
+	}
+
+	private final MeterRegistry registry;
+	private final Map<String, Counter[]> outcomes = new ConcurrentHashMap<>();
+	private final DistributionSummary cartLines;
+	private final DistributionSummary orderTotal;
+	private final DistributionSummary orderItems;
+
+	public AppMetrics(MeterRegistry registry) {
+		this.registry = registry;
+		this.cartLines = DistributionSummary.builder("cart.lines")
+				.description("Distinct items in a cart after a successful change")
+				.publishPercentileHistogram()
+				.maximumExpectedValue(500.0)
+				.register(registry);
+		this.orderTotal = DistributionSummary.builder("order.total")
+				.description("Total of each submitted order")
+				.baseUnit("dollars")
+				.publishPercentileHistogram()
+				.maximumExpectedValue(10_000.0)
+				.register(registry);
+		this.orderItems = DistributionSummary.builder("order.items")
+				.description("Item units in each submitted order")
+				.publishPercentileHistogram()
+				.maximumExpectedValue(1_000.0)
+				.register(registry);
+	}
+
+	/**
+	 * Counts one call of {@code endpoint}. Every outcome of an endpoint is
+	 * registered on its first call, so rates start from zero instead of
+	 * appearing with the first failure.
+	 */
+	public void outcome(String endpoint, Outcome outcome) {
+		Counter[] counters = outcomes.get(endpoint);
+		if (counters == null) {
+			counters = outcomes.computeIfAbsent(endpoint, this::register);
+		}
+		counters[outcome.ordinal()].increment();
+	}
+
+	private Counter[] register(String endpoint) {
+		Outcome[] values = Outcome.values();
+		Counter[] counters = new Counter[values.length];
+		for (Outcome outcome : values) {
+			counters[outcome.ordinal()] = Counter.builder("api.outcomes")
+					.description("API calls by endpoint and outcome")
+					.tag("endpoint", endpoint)
+					.tag("outcome", outcome.tag)
+					.register(registry);
+		}
+		return counters;
+	}
+
+	public void cart(Cart cart) {
+		cartLines.record(cart.getLines().size());
+	}
+
+	public void order(UserOrder order) {
+		orderTotal.record(order.getTotal() == null ? 0 : order.getTotal().doubleValue());
+		orderItems.record(order.getItemCount());
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.demo.metrics;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.cache.CacheStats;
+import com.example.demo.catalog.ItemCatalog;
+import com.example.demo.checkout.CheckoutService;
+import com.example.demo.security.UserDetailsServiceImpl;
+import com.example.demo.security.VerifiedTokenCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the counters of every in-process cache under the names
+ * Micrometer uses for cache libraries ({@code cache.gets},
+ * {@code cache.evictions}, {@code cache.size}), tagged with the cache name.
+ * Values are read from the caches' own stats when scraped, so nothing is
+ * added to the cache hot path. {@code /api/stats/caches} shows the same
+ * numbers as JSON.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+	private final ItemCatalog itemCatalog;
+	private final VerifiedTokenCache verifiedTokenCache;
+	private final UserDetailsServiceImpl userDetailsService;
+	private final CheckoutService checkoutService;
+
+	public CacheMetrics(ItemCatalog itemCatalog, VerifiedTokenCache verifiedTokenCache,
+			UserDetailsServiceImpl userDetailsService, CheckoutService checkoutService) {
+		this.itemCatalog = itemCatalog;
+		this.verifiedTokenCache = verifiedTokenCache;
+		this.userDetailsService = userDetailsService;
+		this.checkoutService = checkoutService;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		List<CacheStats> itemCaches = itemCatalog.stats();
+		for (int i = 0; i < itemCaches.size(); i++) {
+			int index = i;
+			bind(registry, itemCaches.get(i).name(), () -> itemCatalog.stats().get(index));
+		}
+		bind(registry, verifiedTokenCache.stats().name(), verifiedTokenCache::stats);
+		bind(registry, userDetailsService.stats().name(), userDetailsService::stats);
+		bind(registry, checkoutService.stats().name(), checkoutService::stats);
+	}
+
+	private static void bind(MeterRegistry registry, String cache, Supplier<CacheStats> stats) {
+		counter(registry, "cache.gets", cache, stats, CacheStats::hits, "result", "hit");
+		counter(registry, "cache.gets", cache, stats, CacheStats::misses, "result", "miss");
+		counter(registry, "cache.evictions", cache, stats, CacheStats::evictions, "cause", "size");
+		counter(registry, "cache.evictions", cache, stats, CacheStats::expirations, "cause", "expired");
+		Gauge.builder("cache.size", stats, s -> s.get().size())
+				.tag("cache", cache)
+				.description("Entries in the cache")
+				.register(registry);
+	}
+
+	private static void counter(MeterRegistry registry, String name, String cache, Supplier<CacheStats> stats,
+			ToDoubleFunction<CacheStats> value, String tag, String tagValue) {
+		FunctionCounter.builder(name, stats, s -> value.applyAsDouble(s.get()))
+				.tag("cache", cache)
+				.tag(tag, tagValue)
+				.register(registry);
+	}
+}
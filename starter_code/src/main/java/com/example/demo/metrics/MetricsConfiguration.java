@@ -0,0 +1,20 @@
+package com.example.demo.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfiguration {
+
+	@Bean
+	public StatementCounter statementCounter() {
+		return new StatementCounter();
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer statementCounterCustomizer(StatementCounter statementCounter) {
+		return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+	}
+}
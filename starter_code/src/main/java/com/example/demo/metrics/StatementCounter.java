@@ -0,0 +1,35 @@
+package com.example.demo.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between
+ * {@link #begin()} and {@link #end()}. Statements outside such a window, for
+ * example from startup or scheduled work, are not counted.
+ */
+public class StatementCounter implements StatementInspector {
+
+	private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+	@Override
+	public String inspect(String sql) {
+		int[] current = count.get();
+		if (current != null) {
+			current[0]++;
+		}
+		return sql;
+	}
+
+	void begin() {
+		count.set(new int[1]);
+	}
+
+	/**
+	 * Returns the statements counted since {@link #begin()} and stops counting.
+	 */
+	int end() {
+		int[] current = count.get();
+		count.remove();
+		return current == null ? 0 : current[0];
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.demo.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records how many SQL statements each request prepared, per URI template, as
+ * {@code http.server.requests.statements}. A request whose count climbs with
+ * the size of its data has started loading an association row by row.
+ */
+@Component
+public class StatementMetricsFilter extends OncePerRequestFilter {
+
+	private final StatementCounter statementCounter;
+	private final MeterRegistry registry;
+	private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+	public StatementMetricsFilter(StatementCounter statementCounter, MeterRegistry registry) {
+		this.statementCounter = statementCounter;
+		this.registry = registry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		statementCounter.begin();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			int statements = statementCounter.end();
+			Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			if (uri != null) {
+				summary(uri.toString()).record(statements);
+			}
+		}
+	}
+
+	private DistributionSummary summary(String uri) {
+		DistributionSummary summary = summaries.get(uri);
+		if (summary == null) {
+			summary = summaries.computeIfAbsent(uri, key -> DistributionSummary.builder("http.server.requests.statements")
+					.description("SQL statements prepared per request")
+					.tag("uri", key)
+					.serviceLevelObjectives(1, 2, 3, 5, 10, 20, 50, 100)
+					.register(registry));
+		}
+		return summary;
+	}
+}
@@ -2,33 +2,41 @@ package com.example.demo.model.persistence;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import com.example.demo.cart.CartPricing;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.ManyToMany;
+import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.OrderBy;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(name = "cart")
 public class Cart {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_seq")
+	@SequenceGenerator(name = "cart_seq", sequenceName = "cart_seq", allocationSize = 50)
 	@JsonProperty
 	@Column
 	private Long id;
 	
-	@ManyToMany
+	@OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
+	@OrderBy("id")
 	@JsonProperty
-	@Column
-    private List<Item> items;
+    private List<CartLine> lines = new ArrayList<>();
 	
 	@OneToOne(mappedBy = "cart")
 	@JsonProperty
@@ -37,6 +45,10 @@ public class Cart {
 	@Column
 	@JsonProperty
 	private BigDecimal total;
+
+	@Version
+	@JsonIgnore
+	private Long version;
 	
 	public BigDecimal getTotal() {
 		return total;
@@ -62,33 +74,132 @@ public class Cart {
 		this.id = id;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public List<CartLine> getLines() {
+		return lines;
+	}
+
+	public void setLines(List<CartLine> lines) {
+		this.lines = lines;
+	}
+
+	/**
+	 * Legacy view of the cart with one entry per unit, kept so clients that
+	 * still read {@code items} see the same JSON as before cart lines existed.
+	 */
+	@JsonProperty("items")
 	public List<Item> getItems() {
+		if (lines == null || lines.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Item> items = new ArrayList<>();
+		for (CartLine line : lines) {
+			for (int i = 0; i < line.getQuantity(); i++) {
+				items.add(line.getItem());
+			}
+		}
 		return items;
 	}
 
 	public void setItems(List<Item> items) {
-		this.items = items;
+		if (lines == null) {
+			lines = new ArrayList<>();
+		}
+		lines.clear();
+		total = null;
+		if (items != null) {
+			items.forEach(this::addItem);
+		}
+	}
+
+	/**
+	 * Empties the cart after checkout.
+	 */
+	public void clear() {
+		if (lines != null) {
+			lines.clear();
+		}
+		total = CartPricing.money(null);
+	}
+
+	/**
+	 * Recomputes the total from the lines. Returns {@code true} if it had
+	 * drifted.
+	 */
+	public boolean recalculateTotal() {
+		return CartPricing.repair(this);
+	}
+
+	public CartLine findLine(Item item) {
+		if (lines == null) {
+			return null;
+		}
+		for (CartLine line : lines) {
+			if (line.getItem().equals(item)) {
+				return line;
+			}
+		}
+		return null;
 	}
 	
 	public void addItem(Item item) {
-		if(items == null) {
-			items = new ArrayList<>();
+		addItem(item, 1);
+	}
+
+	public void addItem(Item item, int quantity) {
+		if (quantity <= 0) {
+			return;
+		}
+		if(lines == null) {
+			lines = new ArrayList<>();
 		}
-		items.add(item);
-		if(total == null) {
-			total = new BigDecimal(0);
+		CartLine line = findLine(item);
+		if (line == null) {
+			line = new CartLine(this, item, quantity);
+			lines.add(line);
+		} else {
+			line.setQuantity(line.getQuantity() + quantity);
 		}
-		total = total.add(item.getPrice());
+		total = CartPricing.adjust(total, line.getUnitPrice(), quantity);
 	}
 	
+	/**
+	 * Makes the quantity of {@code item} exactly {@code quantity}; zero removes
+	 * the line.
+	 */
+	public void setQuantity(Item item, int quantity) {
+		CartLine line = findLine(item);
+		int current = line == null ? 0 : line.getQuantity();
+		if (quantity > current) {
+			addItem(item, quantity - current);
+		} else if (quantity < current) {
+			removeItem(item, current - quantity);
+		}
+	}
+
 	public void removeItem(Item item) {
-		if(items == null) {
-			items = new ArrayList<>();
+		removeItem(item, 1);
+	}
+
+	public void removeItem(Item item, int quantity) {
+		total = CartPricing.money(total);
+		CartLine line = findLine(item);
+		if (line == null || quantity <= 0) {
+			return;
 		}
-		items.remove(item);
-		if(total == null) {
-			total = new BigDecimal(0);
+		int removed = Math.min(quantity, line.getQuantity());
+		if (removed == line.getQuantity()) {
+			lines.remove(line);
+		} else {
+			line.setQuantity(line.getQuantity() - removed);
 		}
-		total = total.subtract(item.getPrice());
+		total = CartPricing.adjust(total, line.getUnitPrice(), -removed);
 	}
 }
@@ -0,0 +1,111 @@
+package com.example.demo.model.persistence;
+
+import java.math.BigDecimal;
+
+import com.example.demo.cart.CartPricing;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * One distinct item in a cart together with how many units of it the cart
+ * holds and the unit price at the time the item was first added.
+ */
+@Entity
+@Table(name = "cart_line", uniqueConstraints = @UniqueConstraint(name = CartLine.UNIQUE_KEY, columnNames = {"cart_id", "item_id"}))
+public class CartLine {
+
+	/**
+	 * Name of the (cart_id, item_id) unique key in the schema.
+	 */
+	public static final String UNIQUE_KEY = "uk_cart_line_cart_item";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_line_seq")
+	@SequenceGenerator(name = "cart_line_seq", sequenceName = "cart_line_seq", allocationSize = 50)
+	@JsonIgnore
+	private Long id;
+
+	@ManyToOne(optional = false)
+	@JoinColumn(name = "cart_id", nullable = false)
+	@JsonIgnore
+	private Cart cart;
+
+	@ManyToOne(optional = false)
+	@JoinColumn(name = "item_id", nullable = false)
+	@JsonProperty
+	private Item item;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private int quantity;
+
+	@Column(name = "unit_price", nullable = false)
+	@JsonProperty
+	private BigDecimal unitPrice;
+
+	public CartLine() {
+	}
+
+	public CartLine(Cart cart, Item item, int quantity) {
+		this.cart = cart;
+		this.item = item;
+		this.quantity = quantity;
+		this.unitPrice = CartPricing.money(item.getPrice());
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Cart getCart() {
+		return cart;
+	}
+
+	public void setCart(Cart cart) {
+		this.cart = cart;
+	}
+
+	public Item getItem() {
+		return item;
+	}
+
+	public void setItem(Item item) {
+		this.item = item;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(int quantity) {
+		this.quantity = quantity;
+	}
+
+	public BigDecimal getUnitPrice() {
+		return unitPrice;
+	}
+
+	public void setUnitPrice(BigDecimal unitPrice) {
+		this.unitPrice = unitPrice;
+	}
+
+	@JsonProperty
+	public BigDecimal getLineTotal() {
+		return CartPricing.lineTotal(unitPrice, quantity);
+	}
+}
@@ -1,32 +1,50 @@
 package com.example.demo.model.persistence;
 
 import java.math.BigDecimal;
+import java.util.Locale;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
-@Table(name = "item")
+@Table(name = "item", indexes = {
+		@Index(name = "idx_item_name", columnList = "name"),
+		@Index(name = "idx_item_name_lower", columnList = "name_lower"),
+		@Index(name = "idx_item_sku", columnList = "sku", unique = true)
+})
 public class Item {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+	@SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = 50)
 	@JsonProperty
 	private Long id;
 	
+	@Column(length = 64)
+	@JsonProperty
+	private String sku;
+	
 	@Column(nullable = false)
 	@JsonProperty
 	private String name;
 	
+	@Column(name = "name_lower")
+	@JsonIgnore
+	private String nameLower;
+	
 	@Column(nullable = false)
 	@JsonProperty
 	private BigDecimal price;
@@ -68,12 +86,38 @@ public class Item {
 		this.id = id;
 	}
 
+	public String getSku() {
+		return sku;
+	}
+
+	public void setSku(String sku) {
+		this.sku = sku;
+	}
+
 	public String getName() {
 		return name;
 	}
 
 	public void setName(String name) {
 		this.name = name;
+		this.nameLower = normalizeName(name);
+	}
+
+	public String getNameLower() {
+		return nameLower;
+	}
+
+	/**
+	 * Normalized form of an item name used for case-insensitive lookups.
+	 */
+	public static String normalizeName(String name) {
+		return name == null ? null : name.toLowerCase(Locale.ROOT);
+	}
+
+	@PrePersist
+	@PreUpdate
+	void updateNameLower() {
+		nameLower = normalizeName(name);
 	}
 
 	public BigDecimal getPrice() {
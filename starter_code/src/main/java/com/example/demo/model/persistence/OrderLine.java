@@ -0,0 +1,106 @@
+package com.example.demo.model.persistence;
+
+import java.math.BigDecimal;
+
+import com.example.demo.cart.CartPricing;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * One distinct item in an order together with how many units were ordered and
+ * the unit price they were ordered at, copied from the cart line at checkout.
+ */
+@Entity
+@Table(name = "user_order_line", uniqueConstraints = @UniqueConstraint(name = "uk_user_order_line_order_item", columnNames = {"user_order_id", "item_id"}))
+public class OrderLine {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_order_line_seq")
+	@SequenceGenerator(name = "user_order_line_seq", sequenceName = "user_order_line_seq", allocationSize = 50)
+	@JsonIgnore
+	private Long id;
+
+	@ManyToOne(optional = false)
+	@JoinColumn(name = "user_order_id", nullable = false)
+	@JsonIgnore
+	private UserOrder order;
+
+	@ManyToOne(optional = false)
+	@JoinColumn(name = "item_id", nullable = false)
+	@JsonProperty
+	private Item item;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private int quantity;
+
+	@Column(name = "unit_price", nullable = false)
+	@JsonProperty
+	private BigDecimal unitPrice;
+
+	public OrderLine() {
+	}
+
+	public OrderLine(UserOrder order, Item item, int quantity, BigDecimal unitPrice) {
+		this.order = order;
+		this.item = item;
+		this.quantity = quantity;
+		this.unitPrice = unitPrice;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public UserOrder getOrder() {
+		return order;
+	}
+
+	public void setOrder(UserOrder order) {
+		this.order = order;
+	}
+
+	public Item getItem() {
+		return item;
+	}
+
+	public void setItem(Item item) {
+		this.item = item;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(int quantity) {
+		this.quantity = quantity;
+	}
+
+	public BigDecimal getUnitPrice() {
+		return unitPrice;
+	}
+
+	public void setUnitPrice(BigDecimal unitPrice) {
+		this.unitPrice = unitPrice;
+	}
+
+	@JsonProperty
+	public BigDecimal getLineTotal() {
+		return CartPricing.lineTotal(unitPrice, quantity);
+	}
+}
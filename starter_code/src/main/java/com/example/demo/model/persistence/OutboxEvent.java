@@ -0,0 +1,133 @@
+package com.example.demo.model.persistence;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * Work to do after a transaction commits, written in that transaction. A row
+ * exists until every sink has accepted it; {@code attempts} and
+ * {@code nextAttemptAt} hold the retry state of an event a sink rejected.
+ */
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_event_due", columnList = "next_attempt_at, id"))
+public class OutboxEvent {
+
+	public static final int MAX_ERROR_LENGTH = 500;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+	@SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+	private Long id;
+
+	@Column(nullable = false, length = 64)
+	private String type;
+
+	@Column(name = "aggregate_id", nullable = false)
+	private Long aggregateId;
+
+	@Column(nullable = false, length = 4000)
+	private String payload;
+
+	@Column(name = "created_at", nullable = false)
+	private Instant createdAt;
+
+	@Column(nullable = false)
+	private int attempts;
+
+	@Column(name = "next_attempt_at", nullable = false)
+	private Instant nextAttemptAt;
+
+	@Column(name = "last_error", length = MAX_ERROR_LENGTH)
+	private String lastError;
+
+	public static OutboxEvent of(String type, Long aggregateId, String payload, Instant now) {
+		OutboxEvent event = new OutboxEvent();
+		event.setType(type);
+		event.setAggregateId(aggregateId);
+		event.setPayload(payload);
+		event.setCreatedAt(now);
+		event.setNextAttemptAt(now);
+		return event;
+	}
+
+	/**
+	 * Records a failed delivery and schedules the next one.
+	 */
+	public void failed(String error, Instant nextAttemptAt) {
+		attempts++;
+		this.nextAttemptAt = nextAttemptAt;
+		this.lastError = error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public Long getAggregateId() {
+		return aggregateId;
+	}
+
+	public void setAggregateId(Long aggregateId) {
+		this.aggregateId = aggregateId;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public void setPayload(String payload) {
+		this.payload = payload;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public Instant getNextAttemptAt() {
+		return nextAttemptAt;
+	}
+
+	public void setNextAttemptAt(Instant nextAttemptAt) {
+		this.nextAttemptAt = nextAttemptAt;
+	}
+
+	public String getLastError() {
+		return lastError;
+	}
+
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+}
@@ -1,8 +1,10 @@
 package com.example.demo.model.persistence;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -10,28 +12,37 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.JoinTable;
-import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
+import com.example.demo.cart.CartPricing;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
-@Table(name = "user_order")
+@Table(name = "user_order", indexes = {
+		@Index(name = "idx_user_order_user_id", columnList = "user_id, id"),
+		@Index(name = "idx_user_order_created_at", columnList = "created_at")
+})
 public class UserOrder {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_order_seq")
+	@SequenceGenerator(name = "user_order_seq", sequenceName = "user_order_seq", allocationSize = 50)
 	@JsonProperty
 	@Column
 	private Long id;
 	
-	@ManyToMany(cascade = CascadeType.ALL)
+	@OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+	@OrderBy("id")
 	@JsonProperty
-	@Column
-    private List<Item> items;
+	private List<OrderLine> lines = new ArrayList<>();
 	
 	@ManyToOne
 	@JoinColumn(name="user_id", nullable = false, referencedColumnName = "id")
@@ -42,6 +53,10 @@ public class UserOrder {
 	@Column
 	private BigDecimal total;
 
+	@JsonProperty
+	@Column(name = "created_at")
+	private Instant createdAt;
+
 	public Long getId() {
 		return id;
 	}
@@ -50,12 +65,72 @@ public class UserOrder {
 		this.id = id;
 	}
 
+	public List<OrderLine> getLines() {
+		return lines;
+	}
+
+	public void setLines(List<OrderLine> lines) {
+		this.lines = lines;
+	}
+
+	/**
+	 * Legacy view of the order with one entry per unit, kept so clients that
+	 * still read {@code items} see the same JSON as before order lines existed.
+	 */
+	@JsonProperty("items")
 	public List<Item> getItems() {
+		if (lines == null || lines.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Item> items = new ArrayList<>();
+		for (OrderLine line : lines) {
+			for (int i = 0; i < line.getQuantity(); i++) {
+				items.add(line.getItem());
+			}
+		}
 		return items;
 	}
 
+	/**
+	 * Replaces the lines with one per distinct item, priced at the item's
+	 * current price.
+	 */
 	public void setItems(List<Item> items) {
-		this.items = items;
+		if (lines == null) {
+			lines = new ArrayList<>();
+		}
+		lines.clear();
+		if (items != null) {
+			items.forEach(item -> addLine(item, 1, CartPricing.money(item.getPrice())));
+		}
+	}
+
+	/**
+	 * Adds {@code quantity} units of {@code item}, merging into the item's
+	 * existing line.
+	 */
+	public void addLine(Item item, int quantity, BigDecimal unitPrice) {
+		for (OrderLine line : lines) {
+			if (line.getItem().equals(item)) {
+				line.setQuantity(line.getQuantity() + quantity);
+				return;
+			}
+		}
+		lines.add(new OrderLine(this, item, quantity, unitPrice));
+	}
+
+	/**
+	 * Units ordered, summed over the lines.
+	 */
+	@JsonIgnore
+	public int getItemCount() {
+		int count = 0;
+		if (lines != null) {
+			for (OrderLine line : lines) {
+				count += line.getQuantity();
+			}
+		}
+		return count;
 	}
 
 	public User getUser() {
@@ -74,11 +149,29 @@ public class UserOrder {
 		this.total = total;
 	}
 
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	@PrePersist
+	void setCreatedAtIfMissing() {
+		if (createdAt == null) {
+			createdAt = Instant.now();
+		}
+	}
+
 	public static UserOrder createFromCart(Cart cart) {
 		UserOrder order = new UserOrder();
-		order.setItems(cart.getItems().stream().collect(Collectors.toList()));
-		order.setTotal(cart.getTotal());
+		for (CartLine line : cart.getLines()) {
+			order.addLine(line.getItem(), line.getQuantity(), line.getUnitPrice());
+		}
+		order.setTotal(CartPricing.total(cart.getLines()));
 		order.setUser(cart.getUser());
+		order.setCreatedAt(Instant.now());
 		return order;
 	}
 	
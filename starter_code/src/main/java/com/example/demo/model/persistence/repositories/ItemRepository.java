@@ -1,14 +1,42 @@
 package com.example.demo.model.persistence.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.example.demo.model.persistence.Item;
+
+import jakarta.persistence.QueryHint;
+
 import org.springframework.stereotype.Repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 	List<Item> findByName(String name);
 
+	List<Item> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	@QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+	@Query("select i from Item i order by i.id")
+	Stream<Item> streamAll();
+
+	List<Item> findByNameLowerStartingWithOrderByNameLowerAscIdAsc(String prefix, Limit limit);
+
+	/**
+	 * Ids with the stored {@code name_lower}, the column the database prefix
+	 * search matches, so both search paths agree on what a name is.
+	 */
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+	@Query("select i.id, i.nameLower from Item i where i.nameLower is not null")
+	Stream<Object[]> streamIdsAndLowerNames();
+
+	List<Item> findBySkuIn(Collection<String> skus);
 }
@@ -1,14 +1,62 @@
 package com.example.demo.model.persistence.repositories;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.OrderSummary;
+
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderRepository extends JpaRepository<UserOrder, Long> {
+	/**
+	 * Loads the user's orders together with their lines and items in one query.
+	 */
+	@EntityGraph(attributePaths = {"lines", "lines.item"})
 	List<UserOrder> findByUser(User user);
+
+	/**
+	 * Newest-first summaries of the user's orders with an id below
+	 * {@code before}; the item count is the number of units ordered.
+	 */
+	@Query("select new com.example.demo.model.responses.OrderSummary(o.id, o.total, "
+			+ "cast(coalesce(sum(l.quantity), 0) as Integer), o.createdAt) "
+			+ "from UserOrder o left join o.lines l where o.user = :user and o.id < :before "
+			+ "group by o.id, o.total, o.createdAt order by o.id desc")
+	List<OrderSummary> findSummariesByUserBefore(@Param("user") User user, @Param("before") Long before, Limit limit);
+
+	@EntityGraph(attributePaths = {"lines", "lines.item"})
+	Optional<UserOrder> findByIdAndUser(Long id, User user);
+
+	/**
+	 * Ids of orders written before {@code cutoff}, lowest first.
+	 */
+	@Query("select o.id from UserOrder o where o.createdAt < :cutoff order by o.id")
+	List<Long> findIdsCreatedBefore(@Param("cutoff") Instant cutoff, Limit limit);
+
+	@EntityGraph(attributePaths = {"lines", "lines.item", "user"})
+	List<UserOrder> findByIdIn(Collection<Long> ids);
+
+	/**
+	 * Deletes the lines of orders without loading them. Bulk deletes skip the
+	 * cascade on {@code lines}, so this must run before {@link #deleteByIdIn}.
+	 */
+	@Modifying
+	@Query("delete from OrderLine l where l.order.id in :ids")
+	int deleteLinesByOrderIdIn(@Param("ids") Collection<Long> ids);
+
+	@Modifying
+	@Query("delete from UserOrder o where o.id in :ids")
+	int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,24 @@
+package com.example.demo.model.persistence.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.example.demo.model.persistence.OutboxEvent;
+import com.example.demo.model.responses.OutboxBacklog;
+
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+	/**
+	 * Events whose next attempt is due, oldest first.
+	 */
+	List<OutboxEvent> findByNextAttemptAtLessThanEqualOrderByIdAsc(Instant now, Limit limit);
+
+	@Query("select new com.example.demo.model.responses.OutboxBacklog(count(e), min(e.createdAt)) from OutboxEvent e")
+	OutboxBacklog backlog();
+}
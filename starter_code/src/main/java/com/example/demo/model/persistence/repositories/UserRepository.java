@@ -1,5 +1,6 @@
 package com.example.demo.model.persistence.repositories;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.example.demo.model.persistence.User;
@@ -7,5 +8,14 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+	/**
+	 * Loads only the user row; the cart stays an unloaded proxy.
+	 */
 	User findByUsername(String username);
+
+	/**
+	 * Loads the user, their cart and the cart's lines and items in one query.
+	 */
+	@EntityGraph(attributePaths = {"cart", "cart.lines", "cart.lines.item"})
+	User findWithCartByUsername(String username);
 }
@@ -0,0 +1,48 @@
+package com.example.demo.model.requests;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One step of a {@link BatchCartRequest}. {@code ADD} and {@code REMOVE} change
+ * the quantity of the item by {@code quantity}; {@code SET} makes it exactly
+ * {@code quantity}, removing the line at zero.
+ */
+public class CartOperation {
+
+	public enum Type {
+		ADD, REMOVE, SET
+	}
+
+	@JsonProperty
+	private Type op;
+
+	@JsonProperty
+	private Long itemId;
+
+	@JsonProperty
+	private int quantity;
+
+	public Type getOp() {
+		return op;
+	}
+
+	public void setOp(Type op) {
+		this.op = op;
+	}
+
+	public Long getItemId() {
+		return itemId;
+	}
+
+	public void setItemId(Long itemId) {
+		this.itemId = itemId;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(int quantity) {
+		this.quantity = quantity;
+	}
+}
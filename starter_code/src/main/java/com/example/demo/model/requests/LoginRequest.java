@@ -0,0 +1,11 @@
+package com.example.demo.model.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Credentials posted to {@code /login}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record LoginRequest(@JsonProperty("username") String username, @JsonProperty("password") String password) {
+}
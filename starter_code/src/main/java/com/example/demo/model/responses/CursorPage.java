@@ -0,0 +1,21 @@
+package com.example.demo.model.responses;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is the value to
+ * pass back as {@code after} to fetch the following page, or {@code null} when
+ * this is the last page.
+ */
+public record CursorPage<T>(List<T> items, Long nextCursor) {
+
+	/**
+	 * Builds a page from rows fetched with the requested limit; a short page
+	 * means there is nothing after it.
+	 */
+	public static <T> CursorPage<T> of(List<T> items, int limit, Function<T, Long> cursorOf) {
+		Long next = items.size() < limit || items.isEmpty() ? null : cursorOf.apply(items.get(items.size() - 1));
+		return new CursorPage<>(items, next);
+	}
+}
@@ -0,0 +1,19 @@
+package com.example.demo.model.responses;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Progress of a catalog import: rows read so far and what happened to them.
+ * {@code errors} holds the first rejected rows, each prefixed with its line
+ * number in the source file.
+ */
+public record ImportResult(boolean finished, long rows, long inserted, long updated, long rejected,
+		List<String> errors, long elapsedMillis) {
+
+	@JsonProperty
+	public long rowsPerSecond() {
+		return elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+	}
+}
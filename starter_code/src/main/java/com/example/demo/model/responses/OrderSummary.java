@@ -0,0 +1,11 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Lightweight view of a submitted order for history listings; the full order
+ * with its items is served per order.
+ */
+public record OrderSummary(Long id, BigDecimal total, int itemCount, Instant createdAt) {
+}
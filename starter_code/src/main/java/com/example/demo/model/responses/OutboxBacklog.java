@@ -0,0 +1,10 @@
+package com.example.demo.model.responses;
+
+import java.time.Instant;
+
+/**
+ * Undelivered outbox events and when the oldest of them was written;
+ * {@code oldest} is {@code null} when nothing is pending.
+ */
+public record OutboxBacklog(long pending, Instant oldest) {
+}
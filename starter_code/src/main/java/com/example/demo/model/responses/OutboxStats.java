@@ -0,0 +1,9 @@
+package com.example.demo.model.responses;
+
+/**
+ * Outbox state as of the dispatcher's last poll. {@code lagSeconds} is the
+ * age of the oldest undelivered event; the counts cover every event since
+ * startup.
+ */
+public record OutboxStats(long pending, double lagSeconds, long delivered, long failedAttempts) {
+}
@@ -0,0 +1,10 @@
+package com.example.demo.model.responses;
+
+/**
+ * Snapshot of the JDBC connection pool. {@code pending} is the number of
+ * threads waiting for a connection right now; the acquire times cover every
+ * connection handed out since startup.
+ */
+public record PoolStats(String pool, int active, int idle, int pending, int max, long acquired,
+		double acquireMeanMillis, double acquireMaxMillis) {
+}
@@ -0,0 +1,50 @@
+package com.example.demo.outbox;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.persistence.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Appends every event to a local NDJSON file, one object per line with the
+ * event's id, type, aggregate id, creation time and payload. Meant for
+ * development and tests, where it stands in for a real downstream system.
+ */
+@Component
+@ConditionalOnProperty("outbox.file-sink.path")
+public class FileOutboxSink implements OutboxSink {
+
+	private final Path path;
+	private final ObjectMapper objectMapper;
+
+	public FileOutboxSink(@Value("${outbox.file-sink.path}") Path path, ObjectMapper objectMapper) {
+		this.path = path;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public String name() {
+		return "file";
+	}
+
+	@Override
+	public void deliver(OutboxEvent event) throws IOException {
+		ObjectNode line = objectMapper.createObjectNode();
+		line.put("id", event.getId());
+		line.put("type", event.getType());
+		line.put("aggregateId", event.getAggregateId());
+		line.put("createdAt", event.getCreatedAt().toString());
+		line.set("payload", objectMapper.readTree(event.getPayload()));
+		Files.writeString(path, objectMapper.writeValueAsString(line) + "\n", StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+	}
+}
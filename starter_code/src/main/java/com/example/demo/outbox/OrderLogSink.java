@@ -0,0 +1,42 @@
+package com.example.demo.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.persistence.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Writes the detailed order line Splunk reports on, from the outbox instead
+ * of the request thread.
+ */
+@Component
+public class OrderLogSink implements OutboxSink {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderLogSink.class);
+
+	private final ObjectReader reader;
+
+	public OrderLogSink(ObjectMapper objectMapper) {
+		this.reader = objectMapper.readerFor(OrderSubmitted.class);
+	}
+
+	@Override
+	public String name() {
+		return "order-log";
+	}
+
+	@Override
+	public boolean accepts(String type) {
+		return OrderSubmitted.TYPE.equals(type);
+	}
+
+	@Override
+	public void deliver(OutboxEvent event) throws Exception {
+		OrderSubmitted order = reader.readValue(event.getPayload());
+		log.info("Order SUBMITTED user={} orderId={} items={} total={} createdAt={}", order.username(),
+				order.orderId(), order.items(), order.total(), order.createdAt());
+	}
+}
@@ -0,0 +1,19 @@
+package com.example.demo.outbox;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import com.example.demo.model.persistence.UserOrder;
+
+/**
+ * Payload of the event written with every new order.
+ */
+public record OrderSubmitted(Long orderId, String username, BigDecimal total, int items, Instant createdAt) {
+
+	public static final String TYPE = "order.submitted";
+
+	public static OrderSubmitted of(UserOrder order) {
+		return new OrderSubmitted(order.getId(), order.getUser().getUsername(), order.getTotal(),
+				order.getItemCount(), order.getCreatedAt());
+	}
+}
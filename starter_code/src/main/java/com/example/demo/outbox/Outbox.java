@@ -0,0 +1,41 @@
+package com.example.demo.outbox;
+
+import java.time.Instant;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.persistence.OutboxEvent;
+import com.example.demo.model.persistence.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes outbox events. Only callable inside a transaction: the event has to
+ * commit or roll back together with the change it describes, which is what
+ * lets the {@link OutboxDispatcher} do the follow-up work later without
+ * losing or inventing any.
+ */
+@Component
+public class Outbox {
+
+	private final OutboxEventRepository outboxEventRepository;
+	private final ObjectMapper objectMapper;
+
+	public Outbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+		this.outboxEventRepository = outboxEventRepository;
+		this.objectMapper = objectMapper;
+	}
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public OutboxEvent add(String type, Long aggregateId, Object payload) {
+		String json;
+		try {
+			json = objectMapper.writeValueAsString(payload);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Cannot write " + type + " payload as JSON", e);
+		}
+		return outboxEventRepository.save(OutboxEvent.of(type, aggregateId, json, Instant.now()));
+	}
+}
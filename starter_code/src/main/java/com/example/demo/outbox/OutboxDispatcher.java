@@ -0,0 +1,212 @@
+package com.example.demo.outbox;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.OutboxEvent;
+import com.example.demo.model.persistence.repositories.OutboxEventRepository;
+import com.example.demo.model.responses.OutboxBacklog;
+import com.example.demo.model.responses.OutboxStats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Drains the outbox in the background. Each poll reads due events in batches
+ * of {@code batchSize}, oldest first, hands each one to every sink that
+ * accepts it, deletes the ones all sinks took and reschedules the rest with
+ * exponential backoff, capped at {@code maxBackoff}. No transaction is held
+ * while sinks run, so a slow sink only delays the outbox, never the requests
+ * writing to it.
+ * <p>
+ * Events are never given up on; one that keeps failing stays in the table
+ * with its last error and shows up in {@code outbox.lag}. Two instances
+ * polling the same database can deliver an event twice, which at-least-once
+ * sinks already have to tolerate.
+ */
+@Component
+public class OutboxDispatcher {
+
+	private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+	private final OutboxEventRepository outboxEventRepository;
+	private final List<OutboxSink> sinks;
+	private final TransactionTemplate transactionTemplate;
+	private final Clock clock;
+	private final int batchSize;
+	private final Duration initialBackoff;
+	private final Duration maxBackoff;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final List<Timer[]> deliveryTimers = new ArrayList<>();
+	private final Counter delivered;
+	private final Counter failedAttempts;
+	private volatile OutboxBacklog backlog = new OutboxBacklog(0, null);
+
+	@Autowired
+	public OutboxDispatcher(OutboxEventRepository outboxEventRepository, List<OutboxSink> sinks,
+			PlatformTransactionManager transactionManager, MeterRegistry registry,
+			@Value("${outbox.batch-size:100}") int batchSize,
+			@Value("${outbox.retry.initial-backoff-ms:1000}") long initialBackoffMillis,
+			@Value("${outbox.retry.max-backoff-ms:300000}") long maxBackoffMillis) {
+		this(outboxEventRepository, sinks, transactionManager, registry, batchSize, initialBackoffMillis,
+				maxBackoffMillis, Clock.systemUTC());
+	}
+
+	OutboxDispatcher(OutboxEventRepository outboxEventRepository, List<OutboxSink> sinks,
+			PlatformTransactionManager transactionManager, MeterRegistry registry, int batchSize,
+			long initialBackoffMillis, long maxBackoffMillis, Clock clock) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("outbox.batch-size must be at least 1");
+		}
+		if (initialBackoffMillis < 1 || maxBackoffMillis < initialBackoffMillis) {
+			throw new IllegalArgumentException("outbox.retry backoffs must be positive and max at least initial");
+		}
+		this.outboxEventRepository = outboxEventRepository;
+		this.sinks = List.copyOf(sinks);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.clock = clock;
+		this.batchSize = batchSize;
+		this.initialBackoff = Duration.ofMillis(initialBackoffMillis);
+		this.maxBackoff = Duration.ofMillis(maxBackoffMillis);
+
+		for (OutboxSink sink : this.sinks) {
+			deliveryTimers.add(new Timer[] {deliveryTimer(registry, sink, "success"), deliveryTimer(registry, sink, "failure")});
+		}
+		this.delivered = Counter.builder("outbox.delivered")
+				.description("Outbox events every sink has taken")
+				.register(registry);
+		this.failedAttempts = Counter.builder("outbox.failed.attempts")
+				.description("Outbox deliveries that failed and were rescheduled")
+				.register(registry);
+		Gauge.builder("outbox.pending", this, dispatcher -> dispatcher.backlog.pending())
+				.description("Undelivered outbox events as of the last poll")
+				.register(registry);
+		Gauge.builder("outbox.lag", this, dispatcher -> dispatcher.lagSeconds())
+				.description("Age of the oldest undelivered outbox event as of the last poll")
+				.baseUnit("seconds")
+				.register(registry);
+	}
+
+	private static Timer deliveryTimer(MeterRegistry registry, OutboxSink sink, String result) {
+		return Timer.builder("outbox.delivery")
+				.description("Time a sink takes to accept one outbox event")
+				.tag("sink", sink.name())
+				.tag("result", result)
+				.register(registry);
+	}
+
+	/**
+	 * Delivers every due event, then refreshes the backlog meters.
+	 */
+	@Scheduled(fixedDelayString = "${outbox.poll-interval-ms:500}", initialDelayString = "${outbox.poll-interval-ms:500}")
+	public void poll() {
+		try {
+			while (dispatch() == batchSize) {
+				// a full batch means more may be due
+			}
+			backlog = outboxEventRepository.backlog();
+		} catch (RuntimeException e) {
+			log.error("OutboxDispatch EXCEPTION", e);
+		}
+	}
+
+	/**
+	 * Delivers one batch of due events and returns how many were read.
+	 */
+	public int dispatch() {
+		lock.lock();
+		try {
+			Instant now = clock.instant();
+			List<OutboxEvent> batch = transactionTemplate.execute(
+					status -> outboxEventRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(now, Limit.of(batchSize)));
+			if (batch.isEmpty()) {
+				return 0;
+			}
+			List<Long> done = new ArrayList<>(batch.size());
+			List<OutboxEvent> retry = new ArrayList<>();
+			for (OutboxEvent event : batch) {
+				if (deliver(event)) {
+					done.add(event.getId());
+				} else {
+					retry.add(event);
+				}
+			}
+			transactionTemplate.executeWithoutResult(status -> {
+				if (!done.isEmpty()) {
+					outboxEventRepository.deleteAllByIdInBatch(done);
+				}
+				if (!retry.isEmpty()) {
+					outboxEventRepository.saveAll(retry);
+				}
+			});
+			delivered.increment(done.size());
+			failedAttempts.increment(retry.size());
+			return batch.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Hands {@code event} to each sink that accepts it, stopping at the first
+	 * failure, which reschedules the event.
+	 */
+	private boolean deliver(OutboxEvent event) {
+		for (int i = 0; i < sinks.size(); i++) {
+			OutboxSink sink = sinks.get(i);
+			if (!sink.accepts(event.getType())) {
+				continue;
+			}
+			long start = System.nanoTime();
+			try {
+				sink.deliver(event);
+				deliveryTimers.get(i)[0].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			} catch (Exception e) {
+				deliveryTimers.get(i)[1].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				Duration backoff = backoff(event.getAttempts() + 1);
+				event.failed(sink.name() + ": " + e, clock.instant().plus(backoff));
+				log.warn("OutboxDelivery FAILURE sink={} eventId={} type={} attempts={} retryInMs={} reason=\"{}\"",
+						sink.name(), event.getId(), event.getType(), event.getAttempts(), backoff.toMillis(), e.toString());
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Wait before the attempt after the {@code attempts}-th failure: the
+	 * initial backoff, doubled per further failure, at most the maximum.
+	 */
+	Duration backoff(int attempts) {
+		int doublings = Math.min(attempts - 1, 30);
+		Duration backoff = initialBackoff.multipliedBy(1L << doublings);
+		return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+	}
+
+	private double lagSeconds() {
+		Instant oldest = backlog.oldest();
+		return oldest == null ? 0 : Math.max(0, Duration.between(oldest, clock.instant()).toMillis() / 1000.0);
+	}
+
+	public OutboxStats stats() {
+		OutboxBacklog current = backlog;
+		return new OutboxStats(current.pending(), lagSeconds(), (long) delivered.count(), (long) failedAttempts.count());
+	}
+}
@@ -0,0 +1,28 @@
+package com.example.demo.outbox;
+
+import com.example.demo.model.persistence.OutboxEvent;
+
+/**
+ * Somewhere outbox events go after their transaction has committed. Every
+ * sink bean receives every event it {@link #accepts accepts}. Delivery is at
+ * least once: an event is retried until all of its sinks have taken it, so a
+ * sink that succeeded can see the event again when another one failed, and
+ * sinks have to tolerate duplicates, for example by keying on
+ * {@link OutboxEvent#getId()}.
+ */
+public interface OutboxSink {
+
+	/**
+	 * Tags the sink's meters and log lines.
+	 */
+	String name();
+
+	default boolean accepts(String type) {
+		return true;
+	}
+
+	/**
+	 * Hands one event over; any exception leaves it for a later attempt.
+	 */
+	void deliver(OutboxEvent event) throws Exception;
+}
@@ -9,6 +9,8 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -16,31 +18,37 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.auth0.jwt.JWT;
-import com.example.demo.model.persistence.User;
+import com.example.demo.model.requests.LoginRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
 
 public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
 	 private final AuthenticationManager authenticationManager;
+	 private final PasswordHashingLimiter passwordHashingLimiter;
+	 private final ObjectReader credentialsReader;
 
-    public JWTAuthenticationFilter(AuthenticationManager authenticationManager) {
+    public JWTAuthenticationFilter(AuthenticationManager authenticationManager,
+                                   PasswordHashingLimiter passwordHashingLimiter,
+                                   ObjectMapper objectMapper) {
         this.authenticationManager = authenticationManager;
+        this.passwordHashingLimiter = passwordHashingLimiter;
+        this.credentialsReader = objectMapper.readerFor(LoginRequest.class);
     }
     
     @Override
     public Authentication attemptAuthentication(HttpServletRequest req,
                                                 HttpServletResponse res) throws AuthenticationException {
     	try {
-    		User credentials = new ObjectMapper()
-                    .readValue(req.getInputStream(), User.class);
+    		LoginRequest credentials = credentialsReader.readValue(req.getInputStream());
     		
-    		return authenticationManager.authenticate(
+    		return passwordHashingLimiter.run(() -> authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
-                            credentials.getUsername(),
-                            credentials.getPassword(),
-                            new ArrayList<>()));
+                            credentials.username(),
+                            credentials.password(),
+                            new ArrayList<>())));
     	} catch (IOException e) {
     		throw new RuntimeException(e);
     	}
@@ -58,4 +66,16 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
                 .sign(HMAC512(SecurityConstants.SECRET.getBytes()));
         res.addHeader(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + token);
     }
+
+    @Override
+    protected void unsuccessfulAuthentication(HttpServletRequest req,
+                                              HttpServletResponse res,
+                                              AuthenticationException failed) throws IOException, ServletException {
+        if (failed instanceof PasswordHashingThrottledException) {
+            res.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            res.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), failed.getMessage());
+            return;
+        }
+        super.unsuccessfulAuthentication(req, res, failed);
+    }
 }
\ No newline at end of file
@@ -14,15 +14,14 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.stereotype.Component;
 
-import com.auth0.jwt.JWT;
-
-import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
-
 @Component
 public class JWTAuthenticationVerficationFilter extends BasicAuthenticationFilter {
+
+	private final VerifiedTokenCache verifiedTokenCache;
 	
-	public JWTAuthenticationVerficationFilter(AuthenticationManager authManager) {
+	public JWTAuthenticationVerficationFilter(AuthenticationManager authManager, VerifiedTokenCache verifiedTokenCache) {
         super(authManager);
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 	
 	@Override
@@ -44,9 +43,7 @@ public class JWTAuthenticationVerficationFilter extends BasicAuthenticationFilte
 	private UsernamePasswordAuthenticationToken getAuthentication(HttpServletRequest req) {
 		String token = req.getHeader(SecurityConstants.HEADER_STRING);
         if (token != null) {
-            String user = JWT.require(HMAC512(SecurityConstants.SECRET.getBytes())).build()
-                    .verify(token.replace(SecurityConstants.TOKEN_PREFIX, ""))
-                    .getSubject();
+            String user = verifiedTokenCache.verify(token.replace(SecurityConstants.TOKEN_PREFIX, ""));
             if (user != null) {
                 return new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
             }
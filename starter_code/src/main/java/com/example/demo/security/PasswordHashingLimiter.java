@@ -0,0 +1,81 @@
+package com.example.demo.security;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Bounds how many BCrypt hashes or verifications run at once. A login burst
+ * can otherwise occupy every request thread with CPU-bound hashing and starve
+ * cart and order traffic. Callers that cannot get a slot within the acquire
+ * timeout are rejected straight away instead of queueing.
+ * <p>
+ * Time spent hashing, not waiting for a slot, is recorded as
+ * {@code security.password.hashing}; rejections are counted as
+ * {@code security.password.throttled}.
+ */
+@Component
+public class PasswordHashingLimiter {
+
+	private final Semaphore permits;
+	private final long acquireTimeoutMillis;
+	private final LongAdder rejected = new LongAdder();
+	private final Timer hashingTimer;
+
+	@Autowired
+	public PasswordHashingLimiter(@Value("${security.login.max-concurrent-hashes:0}") int maxConcurrent,
+			@Value("${security.login.acquire-timeout-ms:50}") long acquireTimeoutMillis, MeterRegistry registry) {
+		int limit = maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors();
+		this.permits = new Semaphore(limit);
+		this.acquireTimeoutMillis = acquireTimeoutMillis;
+		this.hashingTimer = Timer.builder("security.password.hashing")
+				.description("BCrypt hashing and verification, excluding the wait for a slot")
+				.register(registry);
+		FunctionCounter.builder("security.password.throttled", rejected, LongAdder::sum)
+				.description("Hashing requests rejected because no slot was free")
+				.register(registry);
+	}
+
+	/**
+	 * Runs {@code hashing} while holding a slot.
+	 *
+	 * @throws PasswordHashingThrottledException if no slot was free within the acquire timeout
+	 */
+	public <T> T run(Supplier<T> hashing) {
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			acquired = false;
+		}
+		if (!acquired) {
+			rejected.increment();
+			throw new PasswordHashingThrottledException("Password hashing capacity exhausted");
+		}
+		long start = System.nanoTime();
+		try {
+			return hashing.get();
+		} finally {
+			hashingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			permits.release();
+		}
+	}
+
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	public int getAvailablePermits() {
+		return permits.availablePermits();
+	}
+}
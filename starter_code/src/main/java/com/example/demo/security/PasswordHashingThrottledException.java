@@ -0,0 +1,14 @@
+package com.example.demo.security;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Thrown when no password hashing slot became free in time. Mapped to
+ * 429 Too Many Requests.
+ */
+public class PasswordHashingThrottledException extends AuthenticationException {
+
+	public PasswordHashingThrottledException(String msg) {
+		super(msg);
+	}
+}
@@ -1,28 +1,80 @@
 package com.example.demo.security;
 
+import java.time.Duration;
 import java.util.Collections;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.cache.CacheStats;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.UserRepository;
 
+/**
+ * Loads users for authentication through a short-lived cache, so repeated
+ * logins do not query the database. Entries are evicted when a user is
+ * created or their password hash changes.
+ */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
 	@Autowired
 	private UserRepository userRepository;
 
+	private final BoundedCache<String, UserDetails> userDetailsCache;
+
+	@Autowired
+	public UserDetailsServiceImpl(@Value("${security.user-details.cache.max-size:10000}") int maxSize,
+			@Value("${security.user-details.cache.ttl-seconds:60}") long ttlSeconds) {
+		this.userDetailsCache = new BoundedCache<>("security.user-details", maxSize, Duration.ofSeconds(ttlSeconds));
+	}
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetails cached = userDetailsCache.getOrLoad(username, this::loadFromRepository);
+        if (cached == null) {
+            throw new UsernameNotFoundException(username);
+        }
+        // the authentication manager erases the password of the instance it is given, so hand out a copy
+        return org.springframework.security.core.userdetails.User.withUserDetails(cached).build();
+    }
+
+    /**
+     * Called by the authentication provider after a successful login whose
+     * stored hash was made with a lower BCrypt cost than the configured one,
+     * so hashes are upgraded transparently as users log in.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername());
+        if (user == null) {
+            throw new UsernameNotFoundException(userDetails.getUsername());
+        }
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        evict(user.getUsername());
+        return new org.springframework.security.core.userdetails.User(user.getUsername(), newPassword, Collections.emptyList());
+    }
+
+    public void evict(String username) {
+        userDetailsCache.invalidate(username);
+    }
+
+    public CacheStats stats() {
+        return userDetailsCache.stats();
+    }
+
+    private UserDetails loadFromRepository(String username) {
         User user = userRepository.findByUsername(username);
         if (user == null) {
-            throw new UsernameNotFoundException(username);
+            return null;
         }
         return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), Collections.emptyList());
     }
-}
\ No newline at end of file
+}
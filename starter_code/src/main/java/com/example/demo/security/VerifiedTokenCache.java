@@ -0,0 +1,109 @@
+package com.example.demo.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.cache.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+
+/**
+ * Verifies bearer tokens with a single shared {@link JWTVerifier} and remembers
+ * the subject of tokens that already passed verification, keyed by the
+ * SHA-256 of the token. An entry never outlives the token's {@code exp} claim,
+ * so a cached token stops being accepted at the same moment a fresh
+ * verification would start rejecting it.
+ * <p>
+ * Every call is timed as {@code security.jwt.verify}, tagged with whether the
+ * token was {@code cached}, freshly {@code verified} or {@code invalid}.
+ */
+@Component
+public class VerifiedTokenCache {
+
+	private static final JWTVerifier VERIFIER = JWT.require(HMAC512(SecurityConstants.SECRET.getBytes())).build();
+
+	private final BoundedCache<ByteBuffer, String> subjects;
+	private final Timer cachedTimer;
+	private final Timer verifiedTimer;
+	private final Timer invalidTimer;
+
+	@Autowired
+	public VerifiedTokenCache(@Value("${security.jwt.cache.max-size:10000}") int maxSize,
+			@Value("${security.jwt.cache.ttl-seconds:300}") long ttlSeconds, MeterRegistry registry) {
+		this(maxSize, ttlSeconds, System::currentTimeMillis, registry);
+	}
+
+	VerifiedTokenCache(int maxSize, long ttlSeconds, LongSupplier clock, MeterRegistry registry) {
+		this.subjects = new BoundedCache<>("security.verified-tokens", maxSize, Duration.ofSeconds(ttlSeconds), clock);
+		this.cachedTimer = timer(registry, "cached");
+		this.verifiedTimer = timer(registry, "verified");
+		this.invalidTimer = timer(registry, "invalid");
+	}
+
+	private static Timer timer(MeterRegistry registry, String result) {
+		return Timer.builder("security.jwt.verify")
+				.description("Bearer token verification")
+				.tag("result", result)
+				.register(registry);
+	}
+
+	/**
+	 * Returns the subject of a valid token.
+	 *
+	 * @throws JWTVerificationException if the token is malformed, tampered with or expired
+	 */
+	public String verify(String token) {
+		long start = System.nanoTime();
+		ByteBuffer key = hash(token);
+		String subject = subjects.get(key);
+		if (subject != null) {
+			cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			return subject;
+		}
+		DecodedJWT decoded;
+		try {
+			decoded = VERIFIER.verify(token);
+		} catch (JWTVerificationException e) {
+			invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			throw e;
+		}
+		subject = decoded.getSubject();
+		if (subject != null) {
+			Date expiresAt = decoded.getExpiresAt();
+			subjects.put(key, subject, expiresAt == null ? Long.MAX_VALUE : expiresAt.getTime());
+		}
+		verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		return subject;
+	}
+
+	public CacheStats stats() {
+		return subjects.stats();
+	}
+
+	private static ByteBuffer hash(String token) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+}
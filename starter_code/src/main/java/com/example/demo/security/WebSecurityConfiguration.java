@@ -12,6 +12,9 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import jakarta.servlet.DispatcherType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Configuration
 @EnableWebSecurity
@@ -23,6 +26,15 @@ public class WebSecurityConfiguration {
     @Autowired
     private AuthenticationConfiguration authenticationConfiguration;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private PasswordHashingLimiter passwordHashingLimiter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     public WebSecurityConfiguration(UserDetailsServiceImpl userDetailsService,
 			BCryptPasswordEncoder bCryptPasswordEncoder) {
 		this.userDetailsService = userDetailsService;
@@ -35,11 +47,15 @@ public class WebSecurityConfiguration {
             .csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(registry ->{
                 registry.requestMatchers(HttpMethod.POST,SecurityConstants.SIGN_UP_URL).permitAll();
+                // load balancer probes; metrics and prometheus still need a token
+                registry.requestMatchers(HttpMethod.GET, "/actuator/health").permitAll();
+                // sendError forwards to /error; without this a 401 or 429 reaches the client as 403
+                registry.dispatcherTypeMatchers(DispatcherType.ERROR).permitAll();
                 registry.anyRequest().authenticated();
                 
             })
-            .addFilter(new JWTAuthenticationFilter(authenticationManager()))
-            .addFilter(new JWTAuthenticationVerficationFilter(authenticationManager()))
+            .addFilter(new JWTAuthenticationFilter(authenticationManager(), passwordHashingLimiter, objectMapper))
+            .addFilter(new JWTAuthenticationVerficationFilter(authenticationManager(), verifiedTokenCache))
             .sessionManagement((var session)-> {
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS);
             })
@@ -0,0 +1,11 @@
+package com.example.demo.threads;
+
+import java.util.Map;
+
+/**
+ * Virtual-thread pinning seen since startup. {@code sites} maps the first
+ * application frame of each pinned stack to the number of times it pinned,
+ * most frequent first.
+ */
+public record PinningStats(long thresholdMillis, long events, long pinnedMillis, Map<String, Long> sites) {
+}
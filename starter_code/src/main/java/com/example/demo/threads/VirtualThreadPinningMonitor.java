@@ -0,0 +1,121 @@
+package com.example.demo.threads;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Watches the JFR {@code jdk.VirtualThreadPinned} event while requests run on
+ * virtual threads. A virtual thread that blocks inside {@code synchronized}
+ * or a native frame keeps its carrier thread busy, so a few pinning call
+ * sites can serialize the whole server. Each new site is logged once with its
+ * stack; counts per site are kept for {@code /api/stats/pinning}. Events
+ * arrive on the recording's own thread, one at a time.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+	static final String EVENT = "jdk.VirtualThreadPinned";
+	static final int MAX_SITES = 100;
+	private static final int LOGGED_FRAMES = 12;
+
+	private final long thresholdMillis;
+	private final RecordingStream stream;
+	private final LongAdder events = new LongAdder();
+	private final LongAdder pinnedNanos = new LongAdder();
+	private final Map<String, LongAdder> sites = new ConcurrentHashMap<>();
+
+	@Autowired
+	public VirtualThreadPinningMonitor(@Value("${threads.pinning.threshold-ms:20}") long thresholdMillis) {
+		this.thresholdMillis = thresholdMillis;
+		this.stream = new RecordingStream();
+		stream.enable(EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+		stream.onEvent(EVENT, this::record);
+		stream.startAsync();
+		log.info("VirtualThreadPinning WATCHING thresholdMs={}", thresholdMillis);
+	}
+
+	void record(RecordedEvent event) {
+		String site = site(event.getStackTrace());
+		if (!sites.containsKey(site) && sites.size() >= MAX_SITES) {
+			site = "(other)";
+		}
+		LongAdder count = sites.get(site);
+		if (count == null) {
+			count = new LongAdder();
+			sites.put(site, count);
+			log.warn("VirtualThreadPinning PINNED ms={} site={}{}", event.getDuration().toMillis(), site,
+					stack(event.getStackTrace()));
+		}
+		count.increment();
+		// counted last, so a reader that sees the event also sees its site
+		events.increment();
+		pinnedNanos.add(event.getDuration().toNanos());
+	}
+
+	/**
+	 * The first frame outside the JDK, which is where the application entered
+	 * the monitor or native call that pinned.
+	 */
+	static String site(RecordedStackTrace stackTrace) {
+		if (stackTrace == null) {
+			return "(no stack)";
+		}
+		List<RecordedFrame> frames = stackTrace.getFrames();
+		for (RecordedFrame frame : frames) {
+			String type = frame.getMethod().getType().getName();
+			if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+				return describe(frame);
+			}
+		}
+		return frames.isEmpty() ? "(no stack)" : describe(frames.get(0));
+	}
+
+	private static String describe(RecordedFrame frame) {
+		return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+	}
+
+	private static String stack(RecordedStackTrace stackTrace) {
+		if (stackTrace == null) {
+			return "";
+		}
+		return stackTrace.getFrames().stream()
+				.limit(LOGGED_FRAMES)
+				.map(frame -> "\n\tat " + describe(frame))
+				.collect(Collectors.joining());
+	}
+
+	public PinningStats stats() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		sites.entrySet().stream()
+				.sorted(Map.Entry.<String, LongAdder>comparingByValue(
+						(a, b) -> Long.compare(b.sum(), a.sum())))
+				.forEach(entry -> counts.put(entry.getKey(), entry.getValue().sum()));
+		return new PinningStats(thresholdMillis, events.sum(), pinnedNanos.sum() / 1_000_000, counts);
+	}
+
+	@Override
+	public void close() {
+		stream.close();
+	}
+}
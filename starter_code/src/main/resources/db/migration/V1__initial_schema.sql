@@ -0,0 +1,71 @@
+create sequence item_seq start with 1 increment by 50;
+create sequence cart_seq start with 1 increment by 50;
+create sequence cart_line_seq start with 1 increment by 50;
+create sequence user_seq start with 1 increment by 50;
+create sequence user_order_seq start with 1 increment by 50;
+create sequence user_order_line_seq start with 1 increment by 50;
+
+create table item (
+    id bigint not null,
+    sku varchar(64),
+    name varchar(255) not null,
+    name_lower varchar(255),
+    price numeric(38,2) not null,
+    description varchar(255) not null,
+    primary key (id),
+    constraint idx_item_sku unique (sku)
+);
+create index idx_item_name on item (name);
+create index idx_item_name_lower on item (name_lower);
+
+create table cart (
+    id bigint not null,
+    total numeric(38,2),
+    version bigint,
+    primary key (id)
+);
+
+create table cart_line (
+    id bigint not null,
+    cart_id bigint not null,
+    item_id bigint not null,
+    quantity integer not null,
+    unit_price numeric(38,2) not null,
+    primary key (id),
+    constraint uk_cart_line_cart_item unique (cart_id, item_id),
+    constraint fk_cart_line_cart foreign key (cart_id) references cart,
+    constraint fk_cart_line_item foreign key (item_id) references item
+);
+
+create table user (
+    id bigint not null,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    cart_id bigint,
+    primary key (id),
+    constraint uk_user_username unique (username),
+    constraint uk_user_cart unique (cart_id),
+    constraint fk_user_cart foreign key (cart_id) references cart
+);
+
+create table user_order (
+    id bigint not null,
+    user_id bigint not null,
+    total numeric(38,2),
+    created_at timestamp(6) with time zone,
+    primary key (id),
+    constraint fk_user_order_user foreign key (user_id) references user
+);
+create index idx_user_order_user_id on user_order (user_id, id);
+
+create table user_order_line (
+    id bigint not null,
+    user_order_id bigint not null,
+    item_id bigint not null,
+    quantity integer not null,
+    unit_price numeric(38,2) not null,
+    primary key (id),
+    constraint uk_user_order_line_order_item unique (user_order_id, item_id),
+    constraint fk_user_order_line_order foreign key (user_order_id) references user_order,
+    constraint fk_user_order_line_item foreign key (item_id) references item
+);
@@ -0,0 +1,4 @@
+insert into item (id, sku, name, name_lower, price, description) values (1, 'WIDGET-ROUND', 'Round Widget', 'round widget', 2.99, 'A widget that is round');
+insert into item (id, sku, name, name_lower, price, description) values (2, 'WIDGET-SQUARE', 'Square Widget', 'square widget', 1.99, 'A widget that is square');
+-- ids above are assigned by hand; move the sequence past them and past the block Hibernate reserves
+alter sequence item_seq restart with 101;
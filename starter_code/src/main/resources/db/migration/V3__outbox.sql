@@ -0,0 +1,14 @@
+create sequence outbox_event_seq start with 1 increment by 50;
+
+create table outbox_event (
+    id bigint not null,
+    type varchar(64) not null,
+    aggregate_id bigint not null,
+    payload varchar(4000) not null,
+    created_at timestamp(6) with time zone not null,
+    attempts integer not null,
+    next_attempt_at timestamp(6) with time zone not null,
+    last_error varchar(500),
+    primary key (id)
+);
+create index idx_outbox_event_due on outbox_event (next_attempt_at, id);
@@ -0,0 +1,2 @@
+-- the order archiver selects orders by age
+create index idx_user_order_created_at on user_order (created_at);
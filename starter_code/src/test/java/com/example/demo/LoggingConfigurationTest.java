@@ -0,0 +1,59 @@
+package com.example.demo;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks the queues logback-spring.xml sets up: one per sink, taking every
+ * level, that blocks when full and by default drops nothing.
+ */
+@SpringBootTest
+public class LoggingConfigurationTest {
+
+    private static final String[] QUEUES = {"ASYNC_CONSOLE", "ASYNC_FILE"};
+
+    private static AsyncAppender appender(String name) {
+        Logger root = ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(Logger.ROOT_LOGGER_NAME);
+        return (AsyncAppender) root.getAppender(name);
+    }
+
+    private static FilterReply decide(AsyncAppender appender, Level level) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLevel(level);
+        return appender.getFilterChainDecision(event);
+    }
+
+    @Test
+    public void queues_block_and_drop_nothing_by_default() {
+        for (String name : QUEUES) {
+            assertFalse(appender(name).isNeverBlock(), name);
+            assertEquals(0, appender(name).getDiscardingThreshold(), name);
+        }
+    }
+
+    @Test
+    public void one_queue_per_sink_takes_every_level() {
+        Logger root = ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(Logger.ROOT_LOGGER_NAME);
+        List<String> names = new ArrayList<>();
+        root.iteratorForAppenders().forEachRemaining(appender -> names.add(appender.getName()));
+        assertEquals(List.of(QUEUES), names);
+        for (String name : QUEUES) {
+            for (Level level : new Level[] {Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR}) {
+                assertEquals(FilterReply.NEUTRAL, decide(appender(name), level), name + " " + level);
+            }
+        }
+    }
+}
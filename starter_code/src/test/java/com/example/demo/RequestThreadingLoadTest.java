@@ -0,0 +1,182 @@
+package com.example.demo;
+
+import com.auth0.jwt.JWT;
+import com.example.demo.load.Latencies;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.security.SecurityConstants;
+import com.example.demo.threads.PinningStats;
+import com.example.demo.threads.VirtualThreadPinningMonitor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives {@code /api/cart/addToCart} and {@code /api/order/submit} over real
+ * HTTP from many concurrent clients, once with platform request threads and
+ * once with virtual ones, and prints throughput and latency percentiles for
+ * both. In virtual mode it also prints the pinning the JFR monitor saw.
+ * <p>
+ * Excluded from the normal build; run it with
+ * {@code mvn test -Dgroups=load -Dsurefire.excludedGroups= -Dtest=RequestThreadingLoadTest}.
+ * {@code -Dload.clients}, {@code -Dload.warmup-seconds} and
+ * {@code -Dload.seconds} change the shape of the run.
+ */
+@Tag("load")
+public class RequestThreadingLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 200);
+    private static final long WARMUP_SECONDS = Long.getLong("load.warmup-seconds", 10);
+    private static final long MEASURE_SECONDS = Long.getLong("load.seconds", 20);
+    private static final int ADDS_PER_ORDER = 5;
+
+    @Test
+    public void compare_platform_and_virtual_request_threads() throws Exception {
+        Result platform = run("platform", false);
+        Result virtual = run("virtual", true);
+
+        System.out.println();
+        System.out.printf("%d clients, %d s measured after %d s warmup%n", CLIENTS, MEASURE_SECONDS, WARMUP_SECONDS);
+        System.out.printf("%-9s %-10s %10s %9s %9s %9s %7s%n", "threads", "endpoint", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        platform.print();
+        virtual.print();
+        System.out.println("virtual-thread pinning: " + virtual.pinning);
+
+        assertTrue(platform.addToCart.count() > 0 && virtual.addToCart.count() > 0);
+    }
+
+    private Result run(String name, boolean virtualThreads) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SareetaApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + name + ";NON_KEYWORDS=user",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.jpa.properties.hibernate.format_sql=false");
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<String> usernames = createUsers(context, name);
+            Latencies addToCart = new Latencies();
+            Latencies submit = new Latencies();
+
+            long start = System.nanoTime();
+            long measureFrom = start + Duration.ofSeconds(WARMUP_SECONDS).toNanos();
+            long end = measureFrom + Duration.ofSeconds(MEASURE_SECONDS).toNanos();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient http = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .executor(clients)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                List<Future<?>> running = new ArrayList<>();
+                for (String username : usernames) {
+                    running.add(clients.submit(() -> {
+                        client(http, port, username, measureFrom, end, addToCart, submit);
+                        return null;
+                    }));
+                }
+                for (Future<?> client : running) {
+                    client.get();
+                }
+            }
+
+            PinningStats pinning = context.getBeanProvider(VirtualThreadPinningMonitor.class)
+                    .stream().findFirst().map(VirtualThreadPinningMonitor::stats).orElse(null);
+            return new Result(name, addToCart, submit, pinning);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static List<String> createUsers(ConfigurableApplicationContext context, String prefix) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        List<String> usernames = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < CLIENTS; i++) {
+                User user = new User();
+                user.setUsername(prefix + "-client-" + i);
+                user.setPassword("not-a-real-hash");
+                Cart cart = new Cart();
+                cart.setUser(user);
+                user.setCart(cart);
+                userRepository.save(user);
+                usernames.add(user.getUsername());
+            }
+        });
+        return usernames;
+    }
+
+    private static void client(HttpClient http, int port, String username, long measureFrom, long end,
+            Latencies addToCart, Latencies submit) throws InterruptedException {
+        String token = SecurityConstants.TOKEN_PREFIX + JWT.create()
+                .withSubject(username)
+                .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME))
+                .sign(HMAC512(SecurityConstants.SECRET.getBytes()));
+        String base = "http://localhost:" + port;
+        HttpRequest add = HttpRequest.newBuilder(URI.create(base + "/api/cart/addToCart"))
+                .header(SecurityConstants.HEADER_STRING, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"itemId\":1,\"quantity\":1}"))
+                .build();
+        HttpRequest order = HttpRequest.newBuilder(URI.create(base + "/api/order/submit/" + username))
+                .header(SecurityConstants.HEADER_STRING, token)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < ADDS_PER_ORDER; i++) {
+                send(http, add, measureFrom, end, addToCart);
+            }
+            send(http, order, measureFrom, end, submit);
+        }
+    }
+
+    private static void send(HttpClient http, HttpRequest request, long measureFrom, long end, Latencies latencies)
+            throws InterruptedException {
+        long started = System.nanoTime();
+        boolean ok;
+        try {
+            ok = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (java.io.IOException e) {
+            ok = false;
+        }
+        long finished = System.nanoTime();
+        if (started >= measureFrom && finished <= end) {
+            latencies.record(finished - started, ok);
+        }
+    }
+
+    private record Result(String name, Latencies addToCart, Latencies submit, PinningStats pinning) {
+
+        void print() {
+            print("addToCart", addToCart);
+            print("submit", submit);
+        }
+
+        private void print(String endpoint, Latencies latencies) {
+            System.out.printf("%-9s %-10s %10.1f %9.2f %9.2f %9.2f %7d%n", name, endpoint,
+                    latencies.count() / (double) MEASURE_SECONDS,
+                    latencies.percentileMillis(50), latencies.percentileMillis(99),
+                    latencies.percentileMillis(100), latencies.errors());
+        }
+    }
+}
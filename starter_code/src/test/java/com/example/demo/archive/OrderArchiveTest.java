@@ -0,0 +1,224 @@
+package com.example.demo.archive;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.OrderSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OrderArchiveTest {
+
+    @TempDir
+    private Path dir;
+
+    private final User alice = user(1, "alice");
+    private final User bob = user(2, "bob");
+    private final Item widget = item(1, "WIDGET-ROUND", "Round Widget", "2.99");
+    private final Item gadget = item(2, null, "Gadget", "10.50");
+
+    private static User user(long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+
+    private static Item item(long id, String sku, String name, String price) {
+        Item item = new Item();
+        item.setId(id);
+        item.setSku(sku);
+        item.setName(name);
+        item.setPrice(new BigDecimal(price));
+        item.setDescription("A " + name.toLowerCase());
+        return item;
+    }
+
+    private static UserOrder order(long id, User user, Item... items) {
+        UserOrder order = new UserOrder();
+        order.setId(id);
+        order.setUser(user);
+        order.setItems(new ArrayList<>(List.of(items)));
+        BigDecimal total = BigDecimal.ZERO;
+        for (Item item : items) {
+            total = total.add(item.getPrice());
+        }
+        order.setTotal(total);
+        order.setCreatedAt(Instant.parse("2023-03-01T10:15:30.123456789Z").plusSeconds(id));
+        return order;
+    }
+
+    private OrderArchive archive() throws IOException {
+        return new OrderArchive(dir.toString());
+    }
+
+    // ==================== read/write tests ====================
+
+    @Test
+    public void appended_orders_are_read_back_after_reopening() throws IOException {
+        archive().append(List.of(order(10, alice, widget, widget, gadget), order(11, bob, gadget), order(12, alice, widget)));
+
+        OrderArchive reopened = archive();
+        List<UserOrder> orders = reopened.findByUser(alice);
+
+        assertEquals(1, reopened.segments());
+        assertEquals(2, orders.size());
+        UserOrder first = orders.get(0);
+        assertEquals(10L, first.getId());
+        assertSame(alice, first.getUser());
+        assertEquals(new BigDecimal("16.48"), first.getTotal());
+        assertEquals(Instant.parse("2023-03-01T10:15:40.123456789Z"), first.getCreatedAt());
+        assertEquals(3, first.getItems().size());
+        assertEquals("Round Widget", first.getItems().get(0).getName());
+        assertEquals("WIDGET-ROUND", first.getItems().get(0).getSku());
+        assertEquals(new BigDecimal("2.99"), first.getItems().get(0).getPrice());
+        assertNull(first.getItems().get(2).getSku());
+        assertEquals("A gadget", first.getItems().get(2).getDescription());
+        assertEquals(12L, orders.get(1).getId());
+        assertEquals(List.of(11L), reopened.findByUser(bob).stream().map(UserOrder::getId).toList());
+    }
+
+    @Test
+    public void order_lines_keep_quantity_and_price_paid() throws IOException {
+        UserOrder order = new UserOrder();
+        order.setId(10L);
+        order.setUser(alice);
+        order.addLine(widget, 500, new BigDecimal("2.49"));
+        order.setTotal(new BigDecimal("1245.00"));
+        archive().append(List.of(order));
+
+        UserOrder read = archive().findByUser(alice).get(0);
+
+        assertEquals(1, read.getLines().size());
+        assertEquals(500, read.getLines().get(0).getQuantity());
+        assertEquals(new BigDecimal("2.49"), read.getLines().get(0).getUnitPrice());
+        assertEquals(new BigDecimal("2.99"), read.getLines().get(0).getItem().getPrice());
+        assertEquals(500, archive().findSummariesByUserBefore(alice, Long.MAX_VALUE, 1).get(0).itemCount());
+    }
+
+    @Test
+    public void order_without_total_or_date_is_kept_as_is() throws IOException {
+        UserOrder order = order(10, alice, widget);
+        order.setTotal(null);
+        order.setCreatedAt(null);
+        archive().append(List.of(order));
+
+        UserOrder read = archive().findByUser(alice).get(0);
+
+        assertNull(read.getTotal());
+        assertNull(read.getCreatedAt());
+    }
+
+    @Test
+    public void order_in_two_segments_is_returned_once() throws IOException {
+        OrderArchive archive = archive();
+        archive.append(List.of(order(10, alice, widget)));
+        archive.append(List.of(order(10, alice, widget), order(13, alice, gadget)));
+
+        assertEquals(2, archive.segments());
+        assertEquals(List.of(10L, 13L), archive.findByUser(alice).stream().map(UserOrder::getId).toList());
+        assertEquals(List.of(10L, 13L), archive().findByUser(alice).stream().map(UserOrder::getId).toList());
+    }
+
+    @Test
+    public void summaries_are_newest_first_below_cursor() throws IOException {
+        OrderArchive archive = archive();
+        archive.append(List.of(order(10, alice, widget), order(11, alice, widget, gadget), order(12, alice, gadget)));
+
+        List<OrderSummary> page = archive.findSummariesByUserBefore(alice, 12, 5);
+
+        assertEquals(List.of(11L, 10L), page.stream().map(OrderSummary::id).toList());
+        assertEquals(2, page.get(0).itemCount());
+        assertEquals(1, archive.findSummariesByUserBefore(alice, Long.MAX_VALUE, 1).size());
+    }
+
+    @Test
+    public void order_detail_is_found_for_its_user_only() throws IOException {
+        OrderArchive archive = archive();
+        archive.append(List.of(order(10, alice, widget)));
+
+        assertTrue(archive.findByIdAndUser(10L, alice).isPresent());
+        assertFalse(archive.findByIdAndUser(10L, bob).isPresent());
+        assertFalse(archive.findByIdAndUser(11L, alice).isPresent());
+    }
+
+    @Test
+    public void lookups_decode_only_blocks_whose_id_range_matches() throws IOException {
+        Path old = archive().append(List.of(order(10, alice, widget), order(11, alice, gadget)));
+        archive().append(List.of(order(20, alice, widget), order(21, alice, gadget)));
+        // break the older block so that decoding it would fail
+        try (FileChannel channel = FileChannel.open(old, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), 2 * Integer.BYTES);
+        }
+        OrderArchive archive = archive();
+
+        assertEquals(21L, archive.findByIdAndUser(21L, alice).get().getId());
+        assertFalse(archive.findByIdAndUser(15L, alice).isPresent());
+        assertEquals(List.of(21L, 20L),
+                archive.findSummariesByUserBefore(alice, Long.MAX_VALUE, 2).stream().map(OrderSummary::id).toList());
+        assertThrows(UncheckedIOException.class, () -> archive.findByIdAndUser(10L, alice));
+        assertThrows(UncheckedIOException.class, () -> archive.findSummariesByUserBefore(alice, 20, 2));
+    }
+
+    @Test
+    public void summaries_page_across_segments() throws IOException {
+        OrderArchive archive = archive();
+        archive.append(List.of(order(10, alice, widget), order(30, alice, widget)));
+        archive.append(List.of(order(20, alice, widget), order(40, alice, widget)));
+
+        assertEquals(List.of(40L, 30L, 20L),
+                archive.findSummariesByUserBefore(alice, Long.MAX_VALUE, 3).stream().map(OrderSummary::id).toList());
+        assertEquals(List.of(20L, 10L),
+                archive.findSummariesByUserBefore(alice, 30, 3).stream().map(OrderSummary::id).toList());
+    }
+
+    // ==================== directory tests ====================
+
+    @Test
+    public void unfinished_segment_is_ignored_and_overwritten() throws IOException {
+        Files.writeString(dir.resolve(OrderArchive.PREFIX + "000001.seg.tmp"), "half a segment");
+
+        OrderArchive archive = archive();
+        assertEquals(0, archive.segments());
+
+        Path segment = archive.append(List.of(order(10, alice, widget)));
+        assertEquals(OrderArchive.PREFIX + "000001.seg", segment.getFileName().toString());
+        assertFalse(Files.exists(dir.resolve(OrderArchive.PREFIX + "000001.seg.tmp")));
+        assertEquals(1, archive().findByUser(alice).size());
+    }
+
+    @Test
+    public void archive_without_directory_is_empty() throws IOException {
+        OrderArchive archive = new OrderArchive("");
+
+        assertFalse(archive.enabled());
+        assertTrue(archive.findByUser(alice).isEmpty());
+        assertThrows(IllegalStateException.class, () -> archive.append(List.of(order(10, alice, widget))));
+    }
+
+    @Test
+    public void corrupt_segment_fails_loading() throws IOException {
+        Files.writeString(dir.resolve(OrderArchive.PREFIX + "000001.seg"), "not a segment at all");
+
+        assertThrows(IOException.class, this::archive);
+    }
+}
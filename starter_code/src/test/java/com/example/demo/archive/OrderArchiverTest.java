@@ -0,0 +1,142 @@
+package com.example.demo.archive;
+
+import com.example.demo.controllers.OrderController;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.CursorPage;
+import com.example.demo.model.responses.OrderSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archives old orders from a real database and reads the history back
+ * through {@link OrderController}, which has to merge both stores.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:archive;NON_KEYWORDS=user")
+public class OrderArchiverTest {
+
+    private static Path dir;
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) throws IOException {
+        dir = Files.createTempDirectory("order-archive");
+        registry.add("orders.archive.dir", dir::toString);
+    }
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private OrderController orderController;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    private final Instant now = Instant.now();
+    private String username;
+    private List<Long> orderIds;
+
+    @BeforeEach
+    public void setUp() {
+        username = "user-" + UUID.randomUUID();
+        orderIds = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword("hash");
+            Cart cart = new Cart();
+            cart.setUser(user);
+            user.setCart(cart);
+            userRepository.save(user);
+            List<Item> items = itemRepository.findAll();
+            cart.addItem(items.get(0), 2);
+            cart.addItem(items.get(1), 1);
+            for (Duration age : List.of(Duration.ofDays(400), Duration.ofDays(200), Duration.ofDays(1))) {
+                UserOrder order = UserOrder.createFromCart(cart);
+                order.setCreatedAt(now.minus(age));
+                orderRepository.save(order);
+                orderIds.add(order.getId());
+            }
+        });
+    }
+
+    private int rows(String sql, Long orderId) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, orderId);
+    }
+
+    @Test
+    public void old_orders_move_to_archive_and_history_still_shows_them() throws IOException {
+        orderArchiver.archiveOlderThan(now.minus(Duration.ofDays(180)));
+
+        for (Long archived : orderIds.subList(0, 2)) {
+            assertEquals(0, rows("select count(*) from user_order where id = ?", archived));
+            assertEquals(0, rows("select count(*) from user_order_line where user_order_id = ?", archived));
+        }
+        assertEquals(1, rows("select count(*) from user_order where id = ?", orderIds.get(2)));
+        // the archived orders' items stay in the catalog
+        assertTrue(itemRepository.findById(1L).isPresent());
+        assertEquals(0, orderArchiver.archiveOlderThan(now.minus(Duration.ofDays(180))));
+
+        List<UserOrder> history = orderController.getOrdersForUser(username).getBody();
+        assertEquals(orderIds, history.stream().map(UserOrder::getId).toList());
+        UserOrder oldest = history.get(0);
+        assertEquals(3, oldest.getItems().size());
+        assertEquals(2, oldest.getLines().size());
+        assertEquals(2, oldest.getLines().get(0).getQuantity());
+        assertEquals(username, oldest.getUser().getUsername());
+        assertEquals(history.get(2).getTotal(), oldest.getTotal());
+
+        CursorPage<OrderSummary> page = orderController.getOrderHistoryPage(username, null, 2).getBody();
+        assertEquals(List.of(orderIds.get(2), orderIds.get(1)), page.items().stream().map(OrderSummary::id).toList());
+        CursorPage<OrderSummary> next = orderController.getOrderHistoryPage(username, page.nextCursor(), 2).getBody();
+        assertEquals(List.of(orderIds.get(0)), next.items().stream().map(OrderSummary::id).toList());
+
+        UserOrder detail = orderController.getOrder(username, orderIds.get(0)).getBody();
+        assertEquals(orderIds.get(0), detail.getId());
+        assertEquals(3, detail.getItems().size());
+    }
+
+    @Test
+    public void archiver_does_not_share_a_single_scheduler_thread_with_outbox() {
+        assertTrue(taskScheduler.getScheduledThreadPoolExecutor().getCorePoolSize() >= 2);
+    }
+}
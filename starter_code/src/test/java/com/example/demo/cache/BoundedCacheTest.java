@@ -0,0 +1,80 @@
+package com.example.demo.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class BoundedCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final BoundedCache<String, String> cache =
+            new BoundedCache<>("test", 2, Duration.ofSeconds(10), now::get);
+
+    @Test
+    public void counts_hits_and_misses() {
+        assertNull(cache.get("a"));
+        cache.put("a", "A");
+        assertEquals("A", cache.get("a"));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    public void evicts_least_recently_used_entry_when_full() {
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("C", cache.get("c"));
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void expires_entries_after_ttl() {
+        cache.put("a", "A");
+        now.addAndGet(10_000);
+
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.stats().expirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void honours_earlier_per_entry_expiry() {
+        cache.put("a", "A", now.get() + 500);
+        now.addAndGet(499);
+        assertEquals("A", cache.get("a"));
+        now.addAndGet(1);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void does_not_cache_null_loads() {
+        assertNull(cache.getOrLoad("a", key -> null));
+        assertEquals("A", cache.getOrLoad("a", key -> "A"));
+        assertEquals("A", cache.getOrLoad("a", key -> "other"));
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    public void put_if_absent_keeps_live_entry() {
+        assertNull(cache.putIfAbsent("a", "A"));
+        assertEquals("A", cache.putIfAbsent("a", "B"));
+        assertEquals("A", cache.get("a"));
+
+        now.addAndGet(10_000);
+        assertNull(cache.putIfAbsent("a", "C"));
+        assertEquals("C", cache.get("a"));
+    }
+}
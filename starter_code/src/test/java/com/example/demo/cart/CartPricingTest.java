@@ -0,0 +1,144 @@
+package com.example.demo.cart;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
+import com.example.demo.model.persistence.Item;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Property tests: random add, remove, set and clear sequences, each replayed
+ * from a fixed seed so a failure names the seed that reproduces it.
+ */
+public class CartPricingTest {
+
+    private static final int STEPS = 500;
+
+    static LongStream seeds() {
+        return LongStream.range(0, 200);
+    }
+
+    private static List<Item> catalog(Random random) {
+        List<Item> items = new ArrayList<>();
+        for (long id = 1; id <= 8; id++) {
+            Item item = new Item();
+            item.setId(id);
+            item.setName("Item " + id);
+            // up to three decimals, so rounding on the way into a cart line is exercised
+            item.setPrice(BigDecimal.valueOf(random.nextInt(100_000), 3));
+            items.add(item);
+        }
+        return items;
+    }
+
+    @ParameterizedTest(name = "seed {0}")
+    @MethodSource("seeds")
+    public void total_matches_lines_after_random_changes(long seed) {
+        Random random = new Random(seed);
+        List<Item> items = catalog(random);
+        Cart cart = new Cart();
+        Map<Long, Integer> expectedQuantities = new HashMap<>();
+
+        for (int step = 0; step < STEPS; step++) {
+            Item item = items.get(random.nextInt(items.size()));
+            int quantity = random.nextInt(6) - 1;
+            int current = expectedQuantities.getOrDefault(item.getId(), 0);
+            switch (random.nextInt(10)) {
+                case 0, 1, 2, 3 -> {
+                    cart.addItem(item, quantity);
+                    current += Math.max(quantity, 0);
+                }
+                case 4, 5, 6 -> {
+                    cart.removeItem(item, quantity);
+                    current -= Math.min(Math.max(quantity, 0), current);
+                }
+                case 7, 8 -> {
+                    int target = Math.max(quantity, 0);
+                    cart.setQuantity(item, target);
+                    current = target;
+                }
+                default -> {
+                    cart.clear();
+                    expectedQuantities.clear();
+                    current = 0;
+                }
+            }
+            if (current > 0) {
+                expectedQuantities.put(item.getId(), current);
+            } else {
+                expectedQuantities.remove(item.getId());
+            }
+
+            assertConsistent(cart, expectedQuantities, seed, step);
+        }
+    }
+
+    private void assertConsistent(Cart cart, Map<Long, Integer> expectedQuantities, long seed, int step) {
+        String where = "seed " + seed + ", step " + step;
+        BigDecimal total = CartPricing.money(cart.getTotal());
+        assertEquals(0, total.compareTo(CartPricing.total(cart.getLines())), where);
+        assertTrue(total.signum() >= 0, where);
+        assertEquals(expectedQuantities.size(), cart.getLines().size(), where);
+        for (CartLine line : cart.getLines()) {
+            assertTrue(line.getQuantity() > 0, where);
+            assertEquals(CartPricing.SCALE, line.getUnitPrice().scale(), where);
+            assertEquals(expectedQuantities.get(line.getItem().getId()), line.getQuantity(), where);
+        }
+        assertFalse(CartPricing.repair(cart), where);
+    }
+
+    @Test
+    public void removing_missing_item_leaves_total_alone() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setPrice(new BigDecimal("2.99"));
+        Cart cart = new Cart();
+        cart.addItem(item, 1);
+
+        Item other = new Item();
+        other.setId(2L);
+        other.setPrice(new BigDecimal("1.99"));
+        cart.removeItem(other, 3);
+
+        assertEquals(new BigDecimal("2.99"), cart.getTotal());
+    }
+
+    @Test
+    public void unit_price_is_rounded_half_even_once() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setPrice(new BigDecimal("0.125"));
+        Cart cart = new Cart();
+        cart.addItem(item, 3);
+
+        assertEquals(new BigDecimal("0.12"), cart.getLines().get(0).getUnitPrice());
+        assertEquals(new BigDecimal("0.36"), cart.getTotal());
+    }
+
+    @Test
+    public void repair_fixes_drifted_total() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setPrice(new BigDecimal("2.99"));
+        Cart cart = new Cart();
+        cart.addItem(item, 2);
+        cart.setTotal(new BigDecimal("1.00"));
+
+        assertTrue(CartPricing.repair(cart));
+        assertEquals(new BigDecimal("5.98"), cart.getTotal());
+        assertFalse(CartPricing.repair(cart));
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.cart;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CartServiceTest {
+
+    private UserRepository userRepo = mock(UserRepository.class);
+    private CartRepository cartRepo = mock(CartRepository.class);
+    private User user;
+    private Item item;
+
+    @BeforeEach
+    public void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setUsername("testUser");
+        Cart cart = new Cart();
+        cart.setUser(user);
+        user.setCart(cart);
+
+        item = new Item();
+        item.setId(1L);
+        item.setPrice(BigDecimal.valueOf(2.99));
+
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
+    }
+
+    private CartService cartService(String mode) {
+        return new CartService(userRepo, cartRepo, mock(PlatformTransactionManager.class), mode, 3, 0, 0, 64);
+    }
+
+    @Test
+    public void applies_change_and_saves_cart() {
+        Cart cart = cartService("optimistic").update("testUser", c -> {
+            c.addItem(item, 2);
+            return c;
+        });
+
+        assertSame(user.getCart(), cart);
+        assertEquals(2, cart.getItems().size());
+        verify(cartRepo, times(1)).saveAndFlush(cart);
+    }
+
+    @Test
+    public void returns_null_for_unknown_user() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertNull(cartService("optimistic").update("nobody", c -> calls.incrementAndGet()));
+        assertEquals(0, calls.get());
+        verify(cartRepo, never()).saveAndFlush(any(Cart.class));
+    }
+
+    @Test
+    public void retries_change_after_conflict() {
+        when(cartRepo.saveAndFlush(any(Cart.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale cart"))
+                .thenReturn(user.getCart());
+        CartService cartService = cartService("optimistic");
+        AtomicInteger calls = new AtomicInteger();
+
+        cartService.update("testUser", c -> calls.incrementAndGet());
+
+        assertEquals(2, calls.get());
+        CartContentionStats stats = cartService.stats();
+        assertEquals(1, stats.updates());
+        assertEquals(1, stats.conflicts());
+        assertEquals(0, stats.failures());
+    }
+
+    @Test
+    public void gives_up_after_max_attempts() {
+        when(cartRepo.saveAndFlush(any(Cart.class))).thenThrow(new OptimisticLockingFailureException("stale cart"));
+        CartService cartService = cartService("optimistic");
+
+        assertThrows(OptimisticLockingFailureException.class, () -> cartService.update("testUser", c -> c));
+        verify(userRepo, times(3)).findWithCartByUsername("testUser");
+        assertEquals(1, cartService.stats().failures());
+    }
+
+    @Test
+    public void retries_collision_on_cart_line_key() {
+        when(cartRepo.saveAndFlush(any(Cart.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("Unique index or primary key violation: \"PUBLIC.UK_CART_LINE_CART_ITEM_INDEX_8\"")))
+                .thenReturn(user.getCart());
+        CartService cartService = cartService("optimistic");
+
+        cartService.update("testUser", c -> c);
+
+        verify(userRepo, times(2)).findWithCartByUsername("testUser");
+        assertEquals(1, cartService.stats().conflicts());
+    }
+
+    @Test
+    public void does_not_retry_other_integrity_violations() {
+        when(cartRepo.saveAndFlush(any(Cart.class))).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("NULL not allowed for column \"ITEM_ID\"")));
+        CartService cartService = cartService("optimistic");
+
+        assertThrows(DataIntegrityViolationException.class, () -> cartService.update("testUser", c -> c));
+        verify(userRepo, times(1)).findWithCartByUsername("testUser");
+        assertEquals(0, cartService.stats().conflicts());
+    }
+
+    @Test
+    public void backoff_doubles_per_attempt_up_to_max() {
+        CartService cartService = new CartService(userRepo, cartRepo, mock(PlatformTransactionManager.class),
+                "optimistic", 6, 5, 30, 64);
+
+        assertEquals(5, cartService.backoffBound(1));
+        assertEquals(10, cartService.backoffBound(2));
+        assertEquals(20, cartService.backoffBound(3));
+        assertEquals(30, cartService.backoffBound(4));
+        assertEquals(30, cartService.backoffBound(40));
+    }
+
+    @Test
+    public void striped_mode_returns_null_for_null_username() {
+        assertNull(cartService("striped").update(null, c -> c));
+        verify(cartRepo, never()).saveAndFlush(any(Cart.class));
+    }
+
+    @Test
+    public void striped_mode_serializes_updates_to_one_cart() throws Exception {
+        CartService cartService = cartService("striped");
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Cart>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(() -> cartService.update("testUser", c -> {
+                    maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                    c.addItem(item, 1);
+                    inside.decrementAndGet();
+                    return c;
+                })));
+            }
+            for (Future<Cart> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, maxInside.get());
+        assertEquals(200, user.getCart().getLines().get(0).getQuantity());
+        assertEquals(0, BigDecimal.valueOf(598).compareTo(user.getCart().getTotal()));
+        assertEquals("striped", cartService.stats().mode());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.catalog;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.ImportResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalogimport;NON_KEYWORDS=user",
+        "catalog.import.chunk-size=3"
+})
+public class CatalogImporterTest {
+
+    @Autowired
+    private CatalogImporter catalogImporter;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemCatalog itemCatalog;
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Item bySku(String sku) {
+        List<Item> items = itemRepository.findBySkuIn(List.of(sku));
+        assertEquals(1, items.size(), sku);
+        return items.get(0);
+    }
+
+    @Test
+    public void imports_csv_across_chunks() throws IOException {
+        StringBuilder csv = new StringBuilder("sku,name,price,description\n");
+        for (int i = 0; i < 10; i++) {
+            csv.append("CSV-").append(i).append(",\"Widget, no. ").append(i).append("\",1.50,Bulk\n");
+        }
+
+        ImportResult result = catalogImporter.importItems(input(csv.toString()), CatalogImporter.Format.CSV);
+
+        assertTrue(result.finished());
+        assertEquals(10, result.rows());
+        assertEquals(10, result.inserted());
+        assertEquals(0, result.rejected());
+        Item item = bySku("CSV-7");
+        assertEquals("Widget, no. 7", item.getName());
+        assertEquals(0, new BigDecimal("1.50").compareTo(item.getPrice()));
+        assertEquals("Bulk", item.getDescription());
+    }
+
+    @Test
+    public void updates_existing_sku() throws IOException {
+        long before = itemRepository.count();
+
+        ImportResult result = catalogImporter.importItems(
+                input("{\"sku\":\"WIDGET-ROUND\",\"name\":\"Round Widget\",\"price\":3.49}\n"),
+                CatalogImporter.Format.NDJSON);
+
+        assertEquals(1, result.updated());
+        assertEquals(0, result.inserted());
+        assertEquals(before, itemRepository.count());
+        assertEquals(0, new BigDecimal("3.49").compareTo(itemCatalog.findById(1L).get().getPrice()));
+        assertEquals(0, new BigDecimal("3.49").compareTo(bySku("WIDGET-ROUND").getPrice()));
+    }
+
+    @Test
+    public void rejects_invalid_rows_and_keeps_going() throws IOException {
+        String ndjson = String.join("\n",
+                "{\"sku\":\"ND-1\",\"name\":\"One\",\"price\":1.00}",
+                "{\"sku\":\"ND-2\",\"name\":\"Two\",\"price\":-1}",
+                "not json",
+                "",
+                "{\"sku\":\"ND-3\",\"price\":1.00}",
+                "{\"sku\":\"ND-4\",\"name\":\"Four\",\"price\":1.005}",
+                "{\"sku\":\"ND-5\",\"name\":\"Five\",\"price\":2.5,\"id\":99}");
+
+        ImportResult result = catalogImporter.importItems(input(ndjson), CatalogImporter.Format.NDJSON);
+
+        assertEquals(6, result.rows());
+        assertEquals(2, result.inserted());
+        assertEquals(4, result.rejected());
+        assertEquals(4, result.errors().size());
+        assertEquals("line 2: price must not be negative", result.errors().get(0));
+        assertTrue(result.errors().get(1).startsWith("line 3: not a JSON item"));
+        assertEquals("line 5: name is required", result.errors().get(2));
+        assertEquals("line 6: price has more than 2 decimal places", result.errors().get(3));
+        assertEquals("Five", bySku("ND-5").getName());
+    }
+
+    @Test
+    public void csv_without_required_column_fails() {
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogImporter.importItems(input("sku,name\nX,Y\n"), CatalogImporter.Format.CSV));
+        assertTrue(catalogImporter.progress().get().finished());
+    }
+
+    @Test
+    public void repeated_sku_in_one_chunk_updates_the_new_item() throws IOException {
+        ImportResult result = catalogImporter.importItems(
+                input("sku,name,price\nDUP-1,First,1.00\nDUP-1,Second,2.00\n"), CatalogImporter.Format.CSV);
+
+        assertEquals(1, result.inserted());
+        assertEquals(1, result.updated());
+        assertEquals("Second", bySku("DUP-1").getName());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CsvRecordReaderTest {
+
+    private CsvRecordReader reader(String csv) {
+        return new CsvRecordReader(new BufferedReader(new StringReader(csv)));
+    }
+
+    @Test
+    public void reads_plain_records() throws IOException {
+        CsvRecordReader reader = reader("sku,name\r\nA-1,Widget\nA-2,Gadget");
+
+        assertEquals(List.of("sku", "name"), reader.next());
+        assertEquals(List.of("A-1", "Widget"), reader.next());
+        assertEquals(List.of("A-2", "Gadget"), reader.next());
+        assertEquals(3, reader.line());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void reads_quoted_fields() throws IOException {
+        CsvRecordReader reader = reader("\"A-1\",\"Widget, large\",\"says \"\"hi\"\"\"\n");
+
+        assertEquals(List.of("A-1", "Widget, large", "says \"hi\""), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void quoted_field_may_span_lines() throws IOException {
+        CsvRecordReader reader = reader("A-1,\"two\nlines\"\nA-2,one\n");
+
+        assertEquals(List.of("A-1", "two\nlines"), reader.next());
+        assertEquals(1, reader.line());
+        assertEquals(List.of("A-2", "one"), reader.next());
+        assertEquals(3, reader.line());
+    }
+
+    @Test
+    public void skips_blank_lines_and_keeps_empty_fields() throws IOException {
+        CsvRecordReader reader = reader("\n\nA-1,,\n\n");
+
+        assertEquals(List.of("A-1", "", ""), reader.next());
+        assertEquals(3, reader.line());
+        assertNull(reader.next());
+    }
+}
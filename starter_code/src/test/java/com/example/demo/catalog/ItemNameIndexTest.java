@@ -0,0 +1,145 @@
+package com.example.demo.catalog;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemNameIndexTest {
+
+    private ItemRepository itemRepo = mock(ItemRepository.class);
+    private Map<Long, Item> stored = new HashMap<>();
+    private ItemCatalog itemCatalog;
+    private ItemNameIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        itemCatalog = new ItemCatalog(itemRepo, 100, 60);
+        index = new ItemNameIndex(itemRepo, itemCatalog, mock(PlatformTransactionManager.class), true, Runnable::run);
+        stubItem(1L, "Round Widget");
+        stubItem(2L, "Square Widget");
+        stubItem(3L, "widget");
+        stubItem(4L, "Wide Gadget");
+        when(itemRepo.streamIdsAndLowerNames()).thenAnswer(invocation -> Stream.of(
+                new Object[] {1L, "round widget"},
+                new Object[] {2L, "square widget"},
+                new Object[] {3L, "widget"},
+                new Object[] {4L, "wide gadget"}));
+        when(itemRepo.findAllById(any())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<Item> items = new ArrayList<>();
+            ids.forEach(id -> Optional.ofNullable(stored.get(id)).ifPresent(items::add));
+            return items;
+        });
+    }
+
+    private void stubItem(Long id, String name) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(BigDecimal.ONE);
+        item.setDescription(name);
+        stored.put(id, item);
+        when(itemRepo.findById(id)).thenReturn(Optional.of(item));
+    }
+
+    private List<String> names(List<Item> items) {
+        return items.stream().map(Item::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    public void matches_prefix_ignoring_case_in_name_order() {
+        assertEquals(List.of("Wide Gadget", "widget"), names(index.search("WID", 20)));
+    }
+
+    @Test
+    public void honours_limit() {
+        assertEquals(List.of("Wide Gadget"), names(index.search("wid", 1)));
+    }
+
+    @Test
+    public void loads_matches_with_one_query_in_name_order() {
+        assertEquals(List.of("Round Widget", "Square Widget", "Wide Gadget", "widget"), names(index.search("", 20)));
+
+        verify(itemRepo, times(1)).findAllById(any());
+        verify(itemRepo, never()).findById(any());
+    }
+
+    @Test
+    public void no_match_returns_empty_list() {
+        assertTrue(index.search("zzz", 20).isEmpty());
+    }
+
+    @Test
+    public void rebuilds_only_after_catalog_changes() {
+        index.search("wid", 20);
+        index.search("squ", 20);
+        verify(itemRepo, times(1)).streamIdsAndLowerNames();
+
+        itemCatalog.invalidate(2L);
+        index.search("squ", 20);
+        verify(itemRepo, times(2)).streamIdsAndLowerNames();
+    }
+
+    @Test
+    public void database_mode_queries_name_lower_column() {
+        ItemNameIndex dbIndex = new ItemNameIndex(itemRepo, itemCatalog, mock(PlatformTransactionManager.class), false,
+                Runnable::run);
+        when(itemRepo.findByNameLowerStartingWithOrderByNameLowerAscIdAsc("wid", Limit.of(5))).thenReturn(List.of());
+
+        dbIndex.search("Wid", 5);
+
+        verify(itemRepo).findByNameLowerStartingWithOrderByNameLowerAscIdAsc("wid", Limit.of(5));
+        verify(itemRepo, never()).streamIdsAndLowerNames();
+    }
+
+    @Test
+    public void serves_database_then_previous_snapshot_while_building() {
+        Queue<Runnable> builds = new ArrayDeque<>();
+        ItemNameIndex background = new ItemNameIndex(itemRepo, itemCatalog, mock(PlatformTransactionManager.class),
+                true, builds::add);
+        Item wideGadget = itemRepo.findById(4L).get();
+        when(itemRepo.findByNameLowerStartingWithOrderByNameLowerAscIdAsc("wide", Limit.of(20)))
+                .thenReturn(List.of(wideGadget));
+
+        assertEquals(List.of("Wide Gadget"), names(background.search("wide", 20)));
+        verify(itemRepo, never()).streamIdsAndLowerNames();
+        background.search("wide", 20);
+        assertEquals(1, builds.size());
+
+        builds.poll().run();
+        when(itemRepo.streamIdsAndLowerNames()).thenAnswer(invocation -> Stream.of(
+                new Object[] {1L, "round widget"},
+                new Object[] {4L, "wide gadget"}));
+        itemCatalog.invalidate(2L);
+
+        assertEquals(List.of("Square Widget"), names(background.search("squ", 20)));
+        verify(itemRepo, times(2)).findByNameLowerStartingWithOrderByNameLowerAscIdAsc("wide", Limit.of(20));
+
+        builds.poll().run();
+        assertTrue(background.search("squ", 20).isEmpty());
+        assertTrue(builds.isEmpty());
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.demo.checkout;
+
+import com.example.demo.cart.CartService;
+import com.example.demo.metrics.AppMetrics;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.OutboxEvent;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.OutboxEventRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.outbox.OrderSubmitted;
+import com.example.demo.outbox.Outbox;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CheckoutServiceTest {
+
+    private UserRepository userRepo = mock(UserRepository.class);
+    private CartRepository cartRepo = mock(CartRepository.class);
+    private OrderRepository orderRepo = mock(OrderRepository.class);
+    private OutboxEventRepository outboxRepo = mock(OutboxEventRepository.class);
+    private JsonMapper jsonMapper = JsonMapper.builder().findAndAddModules().build();
+    private CheckoutService checkoutService;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        checkoutService = new CheckoutService(
+                new CartService(userRepo, cartRepo, mock(PlatformTransactionManager.class), "optimistic", 3, 0, 0, 64),
+                orderRepo, new AppMetrics(new SimpleMeterRegistry()), new Outbox(outboxRepo, jsonMapper), 100, 60, 5000);
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("testUser");
+        user.setCart(storedCart());
+
+        // every transaction reads the stored cart, as a rolled-back attempt would leave it
+        when(userRepo.findWithCartByUsername("testUser")).thenAnswer(invocation -> {
+            user.setCart(storedCart());
+            return user;
+        });
+    }
+
+    private Cart storedCart() {
+        Cart cart = new Cart();
+        cart.setUser(user);
+        Item item = new Item();
+        item.setId(1L);
+        item.setPrice(BigDecimal.valueOf(2.99));
+        cart.addItem(item, 2);
+        return cart;
+    }
+
+    @Test
+    public void failed_submission_can_be_retried_with_same_key() {
+        when(cartRepo.saveAndFlush(any(Cart.class))).thenThrow(new OptimisticLockingFailureException("stale cart"));
+        assertThrows(OptimisticLockingFailureException.class, () -> checkoutService.submit("testUser", "key-1"));
+
+        when(cartRepo.saveAndFlush(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        assertNotNull(checkoutService.submit("testUser", "key-1"));
+    }
+
+    @Test
+    public void concurrent_submissions_with_same_key_write_one_order() throws Exception {
+        CountDownLatch checkoutStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderRepo.save(any(UserOrder.class))).thenAnswer(invocation -> {
+            checkoutStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<UserOrder>> results = new ArrayList<>();
+            results.add(executor.submit(() -> checkoutService.submit("testUser", "key-1")));
+            checkoutStarted.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> checkoutService.submit("testUser", "key-1")));
+            }
+            release.countDown();
+
+            UserOrder first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<UserOrder> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(orderRepo, times(1)).save(any(UserOrder.class));
+        assertEquals(3, checkoutService.stats().hits());
+    }
+
+    @Test
+    public void checkout_writes_order_submitted_event() throws Exception {
+        when(orderRepo.save(any(UserOrder.class))).thenAnswer(invocation -> {
+            UserOrder order = invocation.getArgument(0);
+            order.setId(7L);
+            return order;
+        });
+
+        UserOrder order = checkoutService.submit("testUser", null);
+
+        ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepo, times(1)).save(event.capture());
+        assertEquals(OrderSubmitted.TYPE, event.getValue().getType());
+        assertEquals(7L, event.getValue().getAggregateId());
+        assertEquals(event.getValue().getCreatedAt(), event.getValue().getNextAttemptAt());
+        OrderSubmitted payload = jsonMapper.readValue(event.getValue().getPayload(), OrderSubmitted.class);
+        assertEquals(new OrderSubmitted(7L, "testUser", order.getTotal(), 2, order.getCreatedAt()), payload);
+    }
+
+    @Test
+    public void idempotent_replay_writes_no_second_event() {
+        checkoutService.submit("testUser", "key-1");
+        checkoutService.submit("testUser", "key-1");
+
+        verify(outboxRepo, times(1)).save(any(OutboxEvent.class));
+    }
+
+    @Test
+    public void empty_cart_writes_no_order_or_event() {
+        when(userRepo.findWithCartByUsername("testUser")).thenAnswer(invocation -> {
+            user.getCart().clear();
+            return user;
+        });
+
+        assertThrows(EmptyCartException.class, () -> checkoutService.submit("testUser", null));
+
+        verify(orderRepo, never()).save(any(UserOrder.class));
+        verify(outboxRepo, never()).save(any(OutboxEvent.class));
+    }
+
+    @Test
+    public void replay_of_stuck_submission_times_out() throws Exception {
+        CheckoutService impatient = new CheckoutService(
+                new CartService(userRepo, cartRepo, mock(PlatformTransactionManager.class), "optimistic", 3, 0, 0, 64),
+                orderRepo, new AppMetrics(new SimpleMeterRegistry()), new Outbox(outboxRepo, jsonMapper), 100, 60, 50);
+        CountDownLatch checkoutStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderRepo.save(any(UserOrder.class))).thenAnswer(invocation -> {
+            checkoutStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<UserOrder> first = executor.submit(() -> impatient.submit("testUser", "key-1"));
+            checkoutStarted.await(5, TimeUnit.SECONDS);
+
+            assertThrows(SubmissionInProgressException.class, () -> impatient.submit("testUser", "key-1"));
+
+            release.countDown();
+            assertNotNull(first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void replay_sees_error_thrown_by_first_submission() throws Exception {
+        CountDownLatch checkoutStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderRepo.save(any(UserOrder.class))).thenAnswer(invocation -> {
+            checkoutStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new StackOverflowError("deep cart");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<UserOrder> first = executor.submit(() -> checkoutService.submit("testUser", "key-1"));
+            checkoutStarted.await(5, TimeUnit.SECONDS);
+            Future<UserOrder> replay = executor.submit(() -> checkoutService.submit("testUser", "key-1"));
+            Thread.sleep(50);
+            release.countDown();
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> replay.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, error.getCause());
+            assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
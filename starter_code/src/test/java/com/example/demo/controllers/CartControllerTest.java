@@ -1,19 +1,28 @@
 package com.example.demo.controllers;
 
 import com.example.demo.TestUtils;
+import com.example.demo.cart.CartService;
+import com.example.demo.catalog.ItemCatalog;
+import com.example.demo.metrics.AppMetrics;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.ItemRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.BatchCartRequest;
+import com.example.demo.model.requests.CartOperation;
 import com.example.demo.model.requests.ModifyCartRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,13 +38,16 @@ public class CartControllerTest {
     private UserRepository userRepo = mock(UserRepository.class);
     private CartRepository cartRepo = mock(CartRepository.class);
     private ItemRepository itemRepo = mock(ItemRepository.class);
+    private SimpleMeterRegistry registry = new SimpleMeterRegistry();
 
     @BeforeEach
     public void setUp() {
         cartController = new CartController();
-        TestUtils.injectObjects(cartController, "userRepository", userRepo);
-        TestUtils.injectObjects(cartController, "cartRepository", cartRepo);
-        TestUtils.injectObjects(cartController, "itemRepository", itemRepo);
+        CartService cartService = new CartService(userRepo, cartRepo, mock(PlatformTransactionManager.class),
+                "optimistic", 3, 0, 0, 64);
+        TestUtils.injectObjects(cartController, "cartService", cartService);
+        TestUtils.injectObjects(cartController, "itemCatalog", new ItemCatalog(itemRepo, 100, 60));
+        TestUtils.injectObjects(cartController, "appMetrics", new AppMetrics(registry));
     }
 
     private User createTestUser() {
@@ -66,7 +78,7 @@ public class CartControllerTest {
         User user = createTestUser();
         Item item = createTestItem();
 
-        when(userRepo.findByUsername("testUser")).thenReturn(user);
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
         when(itemRepo.findById(1L)).thenReturn(Optional.of(item));
 
         ModifyCartRequest request = new ModifyCartRequest();
@@ -82,12 +94,39 @@ public class CartControllerTest {
         Cart cart = response.getBody();
         assertNotNull(cart);
         assertEquals(2, cart.getItems().size());
-        verify(cartRepo, times(1)).save(cart);
+        assertEquals(1, cart.getLines().size());
+        assertEquals(2, cart.getLines().get(0).getQuantity());
+        assertEquals(new BigDecimal("5.98"), cart.getTotal());
+        verify(cartRepo, times(1)).saveAndFlush(cart);
+    }
+
+    @Test
+    public void add_to_cart_merges_into_existing_line() {
+        User user = createTestUser();
+        Item item = createTestItem();
+        user.getCart().addItem(item, 3);
+
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
+        when(itemRepo.findById(1L)).thenReturn(Optional.of(item));
+
+        ModifyCartRequest request = new ModifyCartRequest();
+        request.setUsername("testUser");
+        request.setItemId(1L);
+        request.setQuantity(500);
+
+        ResponseEntity<Cart> response = cartController.addTocart(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Cart cart = response.getBody();
+        assertNotNull(cart);
+        assertEquals(1, cart.getLines().size());
+        assertEquals(503, cart.getLines().get(0).getQuantity());
+        assertEquals(503, cart.getItems().size());
     }
 
     @Test
     public void add_to_cart_user_not_found() {
-        when(userRepo.findByUsername("nonExistentUser")).thenReturn(null);
+        when(userRepo.findWithCartByUsername("nonExistentUser")).thenReturn(null);
 
         ModifyCartRequest request = new ModifyCartRequest();
         request.setUsername("nonExistentUser");
@@ -105,7 +144,7 @@ public class CartControllerTest {
     public void add_to_cart_item_not_found() {
         User user = createTestUser();
 
-        when(userRepo.findByUsername("testUser")).thenReturn(user);
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
         when(itemRepo.findById(999L)).thenReturn(Optional.empty());
 
         ModifyCartRequest request = new ModifyCartRequest();
@@ -131,7 +170,7 @@ public class CartControllerTest {
         user.getCart().addItem(item);
         user.getCart().addItem(item);
 
-        when(userRepo.findByUsername("testUser")).thenReturn(user);
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
         when(itemRepo.findById(1L)).thenReturn(Optional.of(item));
 
         ModifyCartRequest request = new ModifyCartRequest();
@@ -147,12 +186,36 @@ public class CartControllerTest {
         Cart cart = response.getBody();
         assertNotNull(cart);
         assertEquals(1, cart.getItems().size());
-        verify(cartRepo, times(1)).save(cart);
+        assertEquals(BigDecimal.valueOf(2.99), cart.getTotal());
+        verify(cartRepo, times(1)).saveAndFlush(cart);
+    }
+
+    @Test
+    public void remove_more_than_in_cart_removes_line() {
+        User user = createTestUser();
+        Item item = createTestItem();
+        user.getCart().addItem(item, 2);
+
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
+        when(itemRepo.findById(1L)).thenReturn(Optional.of(item));
+
+        ModifyCartRequest request = new ModifyCartRequest();
+        request.setUsername("testUser");
+        request.setItemId(1L);
+        request.setQuantity(5);
+
+        ResponseEntity<Cart> response = cartController.removeFromcart(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Cart cart = response.getBody();
+        assertNotNull(cart);
+        assertTrue(cart.getLines().isEmpty());
+        assertEquals(0, cart.getTotal().signum());
     }
 
     @Test
     public void remove_from_cart_user_not_found() {
-        when(userRepo.findByUsername("nonExistentUser")).thenReturn(null);
+        when(userRepo.findWithCartByUsername("nonExistentUser")).thenReturn(null);
 
         ModifyCartRequest request = new ModifyCartRequest();
         request.setUsername("nonExistentUser");
@@ -170,7 +233,7 @@ public class CartControllerTest {
     public void remove_from_cart_item_not_found() {
         User user = createTestUser();
 
-        when(userRepo.findByUsername("testUser")).thenReturn(user);
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
         when(itemRepo.findById(999L)).thenReturn(Optional.empty());
 
         ModifyCartRequest request = new ModifyCartRequest();
@@ -185,4 +248,127 @@ public class CartControllerTest {
         assertNull(response.getBody());
     }
 
+    // ==================== batch tests ====================
+
+    private CartOperation operation(CartOperation.Type op, Long itemId, int quantity) {
+        CartOperation operation = new CartOperation();
+        operation.setOp(op);
+        operation.setItemId(itemId);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+
+    private BatchCartRequest batchRequest(String username, CartOperation... operations) {
+        BatchCartRequest request = new BatchCartRequest();
+        request.setUsername(username);
+        request.setOperations(new ArrayList<>(List.of(operations)));
+        return request;
+    }
+
+    @Test
+    public void batch_happy_path() {
+        User user = createTestUser();
+        Item item1 = createTestItem();
+        Item item2 = new Item();
+        item2.setId(2L);
+        item2.setName("Square Widget");
+        item2.setPrice(BigDecimal.valueOf(1.99));
+
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
+        when(itemRepo.findAllById(any())).thenReturn(List.of(item1, item2));
+
+        ResponseEntity<Cart> response = cartController.batch(batchRequest("testUser",
+                operation(CartOperation.Type.ADD, 1L, 3),
+                operation(CartOperation.Type.SET, 2L, 4),
+                operation(CartOperation.Type.REMOVE, 1L, 1),
+                operation(CartOperation.Type.SET, 2L, 1)));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Cart cart = response.getBody();
+        assertNotNull(cart);
+        assertEquals(2, cart.getLines().size());
+        assertEquals(3, cart.getItems().size());
+        assertEquals(0, BigDecimal.valueOf(7.97).compareTo(cart.getTotal()));
+
+        verify(itemRepo, times(1)).findAllById(any());
+        verify(itemRepo, never()).findById(any());
+        verify(cartRepo, times(1)).saveAndFlush(cart);
+    }
+
+    @Test
+    public void batch_set_quantity_zero_removes_line() {
+        User user = createTestUser();
+        Item item = createTestItem();
+        user.getCart().addItem(item, 2);
+
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
+        when(itemRepo.findAllById(any())).thenReturn(List.of(item));
+
+        ResponseEntity<Cart> response = cartController.batch(batchRequest("testUser",
+                operation(CartOperation.Type.SET, 1L, 0)));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().getLines().isEmpty());
+        assertEquals(0, BigDecimal.ZERO.compareTo(response.getBody().getTotal()));
+    }
+
+    @Test
+    public void batch_item_not_found_applies_nothing() {
+        User user = createTestUser();
+        Item item = createTestItem();
+
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
+        when(itemRepo.findAllById(any())).thenReturn(List.of(item));
+
+        ResponseEntity<Cart> response = cartController.batch(batchRequest("testUser",
+                operation(CartOperation.Type.ADD, 1L, 1),
+                operation(CartOperation.Type.ADD, 999L, 1)));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertTrue(user.getCart().getLines().isEmpty());
+        verify(cartRepo, never()).saveAndFlush(any(Cart.class));
+    }
+
+    @Test
+    public void batch_user_not_found() {
+        when(userRepo.findWithCartByUsername("nonExistentUser")).thenReturn(null);
+        when(itemRepo.findAllById(any())).thenReturn(List.of(createTestItem()));
+
+        ResponseEntity<Cart> response = cartController.batch(batchRequest("nonExistentUser",
+                operation(CartOperation.Type.ADD, 1L, 1)));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void batch_rejects_invalid_operations() {
+        assertEquals(HttpStatus.BAD_REQUEST, cartController.batch(batchRequest("testUser")).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, cartController.batch(batchRequest("testUser",
+                operation(CartOperation.Type.ADD, 1L, -1))).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, cartController.batch(batchRequest("testUser",
+                operation(null, 1L, 1))).getStatusCode());
+
+        CartOperation[] tooMany = new CartOperation[CartController.MAX_BATCH_OPERATIONS + 1];
+        for (int i = 0; i < tooMany.length; i++) {
+            tooMany[i] = operation(CartOperation.Type.ADD, 1L, 1);
+        }
+        assertEquals(HttpStatus.BAD_REQUEST, cartController.batch(batchRequest("testUser", tooMany)).getStatusCode());
+
+        verify(itemRepo, never()).findAllById(any());
+        assertEquals(4, registry.get("api.outcomes").tag("endpoint", "CartBatch").tag("outcome", "failure")
+                .counter().count());
+    }
+
+    @Test
+    public void batch_rejects_missing_item_id_as_bad_request() {
+        ResponseEntity<Cart> response = cartController.batch(batchRequest("testUser",
+                operation(CartOperation.Type.ADD, 1L, 1),
+                operation(CartOperation.Type.ADD, null, 1)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(itemRepo, never()).findAllById(any());
+        assertEquals(1, registry.get("api.outcomes").tag("endpoint", "CartBatch").tag("outcome", "failure")
+                .counter().count());
+    }
+
 }
@@ -1,37 +1,57 @@
 package com.example.demo.controllers;
 
 import com.example.demo.TestUtils;
+import com.example.demo.catalog.ItemCatalog;
+import com.example.demo.catalog.ItemNameIndex;
+import com.example.demo.catalog.ItemNdjsonWriter;
 import com.example.demo.model.persistence.Item;
-import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.ItemRepository;
-import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.CursorPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 
 public class ItemControllerTest {
 
     private ItemController itemController;
     private ItemRepository itemRepo = mock(ItemRepository.class);
+    private ItemNameIndex itemNameIndex = mock(ItemNameIndex.class);
 
     @BeforeEach
     public void setUp() {
         itemController = new ItemController();
-        TestUtils.injectObjects(itemController, "itemRepository", itemRepo);
+        TestUtils.injectObjects(itemController, "itemCatalog", new ItemCatalog(itemRepo, 100, 60));
+        TestUtils.injectObjects(itemController, "itemNdjsonWriter",
+                new ItemNdjsonWriter(itemRepo, mock(EntityManager.class), new ObjectMapper()));
+        TestUtils.injectObjects(itemController, "itemNameIndex", itemNameIndex);
     }
 
     private Item createTestItem(Long id, String name, BigDecimal price) {
@@ -43,6 +63,14 @@ public class ItemControllerTest {
         return item;
     }
 
+    private static ServletWebRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/item");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
     // ==================== getItems tests ====================
 
     @Test
@@ -51,9 +79,9 @@ public class ItemControllerTest {
         Item item2 = createTestItem(2L, "Square Widget", BigDecimal.valueOf(1.99));
         List<Item> items = Arrays.asList(item1, item2);
 
-        when(itemRepo.findAll()).thenReturn(items);
+        when(itemRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ItemController.MAX_LISTED_ITEMS + 1))).thenReturn(items);
 
-        ResponseEntity<List<Item>> response = itemController.getItems();
+        ResponseEntity<List<Item>> response = itemController.getItems(get(null));
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -67,9 +95,9 @@ public class ItemControllerTest {
 
     @Test
     public void get_all_items_empty() {
-        when(itemRepo.findAll()).thenReturn(new ArrayList<>());
+        when(itemRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ItemController.MAX_LISTED_ITEMS + 1))).thenReturn(new ArrayList<>());
 
-        ResponseEntity<List<Item>> response = itemController.getItems();
+        ResponseEntity<List<Item>> response = itemController.getItems(get(null));
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -79,6 +107,196 @@ public class ItemControllerTest {
         assertTrue(returnedItems.isEmpty());
     }
 
+    @Test
+    public void get_all_items_carries_catalog_etag() {
+        when(itemRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ItemController.MAX_LISTED_ITEMS + 1))).thenReturn(new ArrayList<>());
+
+        ResponseEntity<List<Item>> response = itemController.getItems(get(null));
+
+        assertNotNull(response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getETag().startsWith("W/\""));
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    public void get_all_items_not_modified_skips_repository() {
+        when(itemRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ItemController.MAX_LISTED_ITEMS + 1))).thenReturn(new ArrayList<>());
+        String etag = itemController.getItems(get(null)).getHeaders().getETag();
+
+        ResponseEntity<List<Item>> response = itemController.getItems(get(etag));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(itemRepo, times(1)).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    public void get_all_items_after_catalog_change_is_modified() {
+        ItemCatalog itemCatalog = new ItemCatalog(itemRepo, 100, 60);
+        TestUtils.injectObjects(itemController, "itemCatalog", itemCatalog);
+        when(itemRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ItemController.MAX_LISTED_ITEMS + 1))).thenReturn(new ArrayList<>());
+        String etag = itemController.getItems(get(null)).getHeaders().getETag();
+
+        itemCatalog.invalidateAll();
+        ResponseEntity<List<Item>> response = itemController.getItems(get(etag));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(etag, response.getHeaders().getETag());
+    }
+
+    @Test
+    public void get_all_items_after_invalidate_between_reads_serves_new_items() {
+        ItemCatalog itemCatalog = new ItemCatalog(itemRepo, 100, 60);
+        TestUtils.injectObjects(itemController, "itemCatalog", itemCatalog);
+        Item before = createTestItem(1L, "Round Widget", BigDecimal.valueOf(2.99));
+        Item after = createTestItem(1L, "Round Widget", BigDecimal.valueOf(3.49));
+        when(itemRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ItemController.MAX_LISTED_ITEMS + 1))).thenReturn(List.of(before)).thenReturn(List.of(after));
+        ResponseEntity<List<Item>> first = itemController.getItems(get(null));
+
+        itemCatalog.invalidate(1L);
+        ResponseEntity<List<Item>> second = itemController.getItems(get(first.getHeaders().getETag()));
+
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertEquals(BigDecimal.valueOf(3.49), second.getBody().get(0).getPrice());
+        assertNotEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+    }
+
+    @Test
+    public void get_all_items_caps_listing_and_links_next_page() {
+        List<Item> items = new ArrayList<>();
+        for (long id = 1; id <= ItemController.MAX_LISTED_ITEMS + 1; id++) {
+            items.add(createTestItem(id, "Item " + id, BigDecimal.ONE));
+        }
+        when(itemRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ItemController.MAX_LISTED_ITEMS + 1)))
+                .thenReturn(items);
+
+        ResponseEntity<List<Item>> response = itemController.getItems(get(null));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ItemController.MAX_LISTED_ITEMS, response.getBody().size());
+        assertEquals("</api/item?after=" + ItemController.MAX_LISTED_ITEMS + "&limit=" + ItemController.MAX_PAGE_SIZE
+                + ">; rel=\"next\"", response.getHeaders().getFirst(HttpHeaders.LINK));
+        verify(itemRepo, never()).findAll();
+    }
+
+    @Test
+    public void get_all_items_within_cap_has_no_next_link() {
+        when(itemRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ItemController.MAX_LISTED_ITEMS + 1)))
+                .thenReturn(List.of(createTestItem(1L, "Round Widget", BigDecimal.valueOf(2.99))));
+
+        ResponseEntity<List<Item>> response = itemController.getItems(get(null));
+
+        assertEquals(1, response.getBody().size());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.LINK));
+    }
+
+    @Test
+    public void get_all_items_is_not_cached() {
+        when(itemRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ItemController.MAX_LISTED_ITEMS + 1))).thenReturn(new ArrayList<>());
+
+        itemController.getItems(get(null));
+        itemController.getItems(get(null));
+
+        verify(itemRepo, times(2)).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    public void find_by_id_loaded_across_invalidate_is_not_cached() {
+        ItemCatalog itemCatalog = new ItemCatalog(itemRepo, 100, 60);
+        Item stale = createTestItem(1L, "Round Widget", BigDecimal.valueOf(2.99));
+        when(itemRepo.findById(1L)).thenAnswer(invocation -> {
+            itemCatalog.invalidate(1L);
+            return Optional.of(stale);
+        });
+
+        itemCatalog.findById(1L);
+        itemCatalog.findById(1L);
+
+        verify(itemRepo, times(2)).findById(1L);
+    }
+
+    // ==================== getItemPage tests ====================
+
+    @Test
+    public void get_item_page_returns_cursor_when_page_is_full() {
+        Item item1 = createTestItem(1L, "Round Widget", BigDecimal.valueOf(2.99));
+        Item item2 = createTestItem(2L, "Square Widget", BigDecimal.valueOf(1.99));
+
+        when(itemRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(Arrays.asList(item1, item2));
+
+        ResponseEntity<CursorPage<Item>> response = itemController.getItemPage(0L, 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        CursorPage<Item> page = response.getBody();
+        assertNotNull(page);
+        assertEquals(2, page.items().size());
+        assertEquals(2L, page.nextCursor());
+    }
+
+    @Test
+    public void get_item_page_last_page_has_no_cursor() {
+        Item item2 = createTestItem(2L, "Square Widget", BigDecimal.valueOf(1.99));
+
+        when(itemRepo.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(2))).thenReturn(Arrays.asList(item2));
+
+        ResponseEntity<CursorPage<Item>> response = itemController.getItemPage(1L, 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().items().size());
+        assertNull(response.getBody().nextCursor());
+    }
+
+    @Test
+    public void get_item_page_rejects_oversized_limit() {
+        ResponseEntity<CursorPage<Item>> response = itemController.getItemPage(0L, ItemController.MAX_PAGE_SIZE + 1);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(itemRepo, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    // ==================== streamItems tests ====================
+
+    @Test
+    public void stream_items_writes_one_json_object_per_line() throws Exception {
+        Item item1 = createTestItem(1L, "Round Widget", BigDecimal.valueOf(2.99));
+        Item item2 = createTestItem(2L, "Square Widget", BigDecimal.valueOf(1.99));
+
+        when(itemRepo.streamAll()).thenReturn(Stream.of(item1, item2));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        itemController.streamItems(response);
+
+        assertEquals(ItemNdjsonWriter.MEDIA_TYPE, response.getContentType());
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Round Widget", new ObjectMapper().readValue(lines[0], Item.class).getName());
+        assertEquals("Square Widget", new ObjectMapper().readValue(lines[1], Item.class).getName());
+    }
+
+    // ==================== searchItems tests ====================
+
+    @Test
+    public void search_items_happy_path() {
+        Item item = createTestItem(1L, "Round Widget", BigDecimal.valueOf(2.99));
+
+        when(itemNameIndex.search("rou", 20)).thenReturn(Arrays.asList(item));
+
+        ResponseEntity<List<Item>> response = itemController.searchItems("rou", 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().size());
+    }
+
+    @Test
+    public void search_items_rejects_blank_query() {
+        ResponseEntity<List<Item>> response = itemController.searchItems(" ", 20);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(itemNameIndex, never()).search(any(), anyInt());
+    }
+
     // ==================== getItemById tests ====================
 
     @Test
@@ -87,7 +305,7 @@ public class ItemControllerTest {
 
         when(itemRepo.findById(1L)).thenReturn(Optional.of(item));
 
-        ResponseEntity<Item> response = itemController.getItemById(1L);
+        ResponseEntity<Item> response = itemController.getItemById(1L, get(null));
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -99,17 +317,41 @@ public class ItemControllerTest {
         assertEquals(BigDecimal.valueOf(2.99), returnedItem.getPrice());
     }
 
+    @Test
+    public void get_item_by_id_served_from_catalog_cache() {
+        Item item = createTestItem(1L, "Round Widget", BigDecimal.valueOf(2.99));
+
+        when(itemRepo.findById(1L)).thenReturn(Optional.of(item));
+
+        itemController.getItemById(1L, get(null));
+        ResponseEntity<Item> response = itemController.getItemById(1L, get(null));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(item, response.getBody());
+        verify(itemRepo, times(1)).findById(1L);
+    }
+
     @Test
     public void get_item_by_id_not_found() {
         when(itemRepo.findById(999L)).thenReturn(Optional.empty());
 
-        ResponseEntity<Item> response = itemController.getItemById(999L);
+        ResponseEntity<Item> response = itemController.getItemById(999L, get(null));
 
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertNull(response.getBody());
     }
 
+    @Test
+    public void get_item_by_id_not_modified_skips_repository() {
+        String etag = itemController.getItems(get(null)).getHeaders().getETag();
+
+        ResponseEntity<Item> response = itemController.getItemById(1L, get(etag));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(itemRepo, never()).findById(any());
+    }
+
     // ==================== getItemsByName tests ====================
 
     @Test
@@ -151,5 +393,4 @@ public class ItemControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertNull(response.getBody());
     }
-
 }
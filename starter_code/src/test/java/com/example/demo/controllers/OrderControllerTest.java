@@ -1,20 +1,36 @@
 package com.example.demo.controllers;
 
 import com.example.demo.TestUtils;
+import com.example.demo.archive.OrderArchive;
+import com.example.demo.archive.OrderHistory;
+import com.example.demo.cart.CartService;
+import com.example.demo.checkout.CheckoutService;
+import com.example.demo.metrics.AppMetrics;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.OrderRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.CursorPage;
+import com.example.demo.model.responses.OrderSummary;
+import com.example.demo.outbox.Outbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -28,13 +44,20 @@ public class OrderControllerTest {
 
     private OrderController orderController;
     private UserRepository userRepo = mock(UserRepository.class);
+    private CartRepository cartRepo = mock(CartRepository.class);
     private OrderRepository orderRepo = mock(OrderRepository.class);
+    private SimpleMeterRegistry registry = new SimpleMeterRegistry();
 
     @BeforeEach
-    public void setUp() {
+    public void setUp() throws IOException {
         orderController = new OrderController();
+        CheckoutService checkoutService = new CheckoutService(
+                new CartService(userRepo, cartRepo, mock(PlatformTransactionManager.class), "optimistic", 3, 0, 0, 64),
+                orderRepo, new AppMetrics(new SimpleMeterRegistry()), mock(Outbox.class), 100, 60, 5000);
         TestUtils.injectObjects(orderController, "userRepository", userRepo);
-        TestUtils.injectObjects(orderController, "orderRepository", orderRepo);
+        TestUtils.injectObjects(orderController, "orderHistory", new OrderHistory(orderRepo, new OrderArchive("")));
+        TestUtils.injectObjects(orderController, "checkoutService", checkoutService);
+        TestUtils.injectObjects(orderController, "appMetrics", new AppMetrics(registry));
     }
 
     private User createTestUserWithCart() {
@@ -73,9 +96,9 @@ public class OrderControllerTest {
     public void submit_order_happy_path() {
         User user = createTestUserWithCart();
 
-        when(userRepo.findByUsername("testUser")).thenReturn(user);
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
 
-        ResponseEntity<UserOrder> response = orderController.submit("testUser");
+        ResponseEntity<UserOrder> response = orderController.submit("testUser", null);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -89,11 +112,26 @@ public class OrderControllerTest {
         verify(orderRepo, times(1)).save(any(UserOrder.class));
     }
 
+    @Test
+    public void submit_order_writes_one_line_per_distinct_item() {
+        User user = createTestUserWithCart();
+        user.getCart().addItem(user.getCart().getLines().get(0).getItem(), 499);
+
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
+
+        UserOrder order = orderController.submit("testUser", null).getBody();
+
+        assertEquals(2, order.getLines().size());
+        assertEquals(500, order.getLines().get(0).getQuantity());
+        assertEquals(501, order.getItemCount());
+        assertEquals(501, order.getItems().size());
+    }
+
     @Test
     public void submit_order_user_not_found() {
-        when(userRepo.findByUsername("nonExistentUser")).thenReturn(null);
+        when(userRepo.findWithCartByUsername("nonExistentUser")).thenReturn(null);
 
-        ResponseEntity<UserOrder> response = orderController.submit("nonExistentUser");
+        ResponseEntity<UserOrder> response = orderController.submit("nonExistentUser", null);
 
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -102,6 +140,82 @@ public class OrderControllerTest {
         verify(orderRepo, never()).save(any(UserOrder.class));
     }
 
+    @Test
+    public void submit_order_clears_cart() {
+        User user = createTestUserWithCart();
+
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
+
+        orderController.submit("testUser", null);
+
+        assertTrue(user.getCart().getLines().isEmpty());
+        assertEquals(0, BigDecimal.ZERO.compareTo(user.getCart().getTotal()));
+        verify(cartRepo, times(1)).saveAndFlush(user.getCart());
+    }
+
+    @Test
+    public void submit_order_with_same_idempotency_key_returns_first_order() {
+        User user = createTestUserWithCart();
+
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
+
+        ResponseEntity<UserOrder> first = orderController.submit("testUser", "key-1");
+        ResponseEntity<UserOrder> retry = orderController.submit("testUser", "key-1");
+
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals(2, retry.getBody().getItems().size());
+        verify(orderRepo, times(1)).save(any(UserOrder.class));
+    }
+
+    @Test
+    public void submit_order_with_new_idempotency_key_checks_out_again() {
+        when(userRepo.findWithCartByUsername("testUser")).thenAnswer(invocation -> createTestUserWithCart());
+
+        orderController.submit("testUser", "key-1");
+        orderController.submit("testUser", "key-2");
+
+        verify(orderRepo, times(2)).save(any(UserOrder.class));
+    }
+
+    @Test
+    public void submit_order_conflict_after_retries() {
+        when(userRepo.findWithCartByUsername("testUser")).thenAnswer(invocation -> createTestUserWithCart());
+        when(cartRepo.saveAndFlush(any(Cart.class))).thenThrow(new OptimisticLockingFailureException("stale cart"));
+
+        ResponseEntity<UserOrder> response = orderController.submit("testUser", null);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(userRepo, times(3)).findWithCartByUsername("testUser");
+    }
+
+    @Test
+    public void submit_order_empty_cart_is_bad_request() {
+        User user = createTestUserWithCart();
+        user.getCart().clear();
+
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
+
+        ResponseEntity<UserOrder> response = orderController.submit("testUser", null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(orderRepo, never()).save(any(UserOrder.class));
+    }
+
+    @Test
+    public void submit_order_keyless_retry_after_checkout_is_bad_request() {
+        User user = createTestUserWithCart();
+
+        when(userRepo.findWithCartByUsername("testUser")).thenReturn(user);
+
+        ResponseEntity<UserOrder> first = orderController.submit("testUser", null);
+        ResponseEntity<UserOrder> retry = orderController.submit("testUser", null);
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, retry.getStatusCode());
+        verify(orderRepo, times(1)).save(any(UserOrder.class));
+    }
+
     // ==================== getOrdersForUser tests ====================
 
     @Test
@@ -156,4 +270,105 @@ public class OrderControllerTest {
         assertNull(response.getBody());
     }
 
+    // ==================== getOrderHistoryPage tests ====================
+
+    @Test
+    public void get_order_history_page_happy_path() {
+        User user = createTestUserWithCart();
+        List<OrderSummary> summaries = List.of(
+                new OrderSummary(9L, BigDecimal.valueOf(4.98), 2, Instant.now()),
+                new OrderSummary(7L, BigDecimal.valueOf(2.99), 1, Instant.now()));
+
+        when(userRepo.findByUsername("testUser")).thenReturn(user);
+        when(orderRepo.findSummariesByUserBefore(user, Long.MAX_VALUE, Limit.of(2))).thenReturn(summaries);
+
+        ResponseEntity<CursorPage<OrderSummary>> response = orderController.getOrderHistoryPage("testUser", null, 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        CursorPage<OrderSummary> page = response.getBody();
+        assertNotNull(page);
+        assertEquals(2, page.items().size());
+        assertEquals(7L, page.nextCursor());
+    }
+
+    @Test
+    public void get_order_history_page_continues_from_cursor() {
+        User user = createTestUserWithCart();
+
+        when(userRepo.findByUsername("testUser")).thenReturn(user);
+        when(orderRepo.findSummariesByUserBefore(user, 7L, Limit.of(2))).thenReturn(new ArrayList<>());
+
+        ResponseEntity<CursorPage<OrderSummary>> response = orderController.getOrderHistoryPage("testUser", 7L, 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertTrue(response.getBody().items().isEmpty());
+        assertNull(response.getBody().nextCursor());
+    }
+
+    @Test
+    public void get_order_history_page_rejects_oversized_limit() {
+        ResponseEntity<CursorPage<OrderSummary>> response =
+                orderController.getOrderHistoryPage("testUser", null, OrderController.MAX_PAGE_SIZE + 1);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void get_order_history_page_user_not_found() {
+        when(userRepo.findByUsername("nonExistentUser")).thenReturn(null);
+
+        ResponseEntity<CursorPage<OrderSummary>> response = orderController.getOrderHistoryPage("nonExistentUser", null, 10);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    // ==================== getOrder tests ====================
+
+    @Test
+    public void get_order_happy_path() {
+        User user = createTestUserWithCart();
+        UserOrder order = UserOrder.createFromCart(user.getCart());
+        order.setId(3L);
+
+        when(userRepo.findByUsername("testUser")).thenReturn(user);
+        when(orderRepo.findByIdAndUser(3L, user)).thenReturn(Optional.of(order));
+
+        ResponseEntity<UserOrder> response = orderController.getOrder("testUser", 3L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(order, response.getBody());
+        assertEquals(1, orderDetailOutcomes("success"));
+    }
+
+    @Test
+    public void get_order_of_other_user_not_found() {
+        User user = createTestUserWithCart();
+
+        when(userRepo.findByUsername("testUser")).thenReturn(user);
+        when(orderRepo.findByIdAndUser(3L, user)).thenReturn(Optional.empty());
+
+        ResponseEntity<UserOrder> response = orderController.getOrder("testUser", 3L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(1, orderDetailOutcomes("failure"));
+    }
+
+    @Test
+    public void get_order_repository_exception_returns_500() {
+        User user = createTestUserWithCart();
+
+        when(userRepo.findByUsername("testUser")).thenReturn(user);
+        when(orderRepo.findByIdAndUser(3L, user)).thenThrow(new RuntimeException("Database error"));
+
+        ResponseEntity<UserOrder> response = orderController.getOrder("testUser", 3L);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals(1, orderDetailOutcomes("exception"));
+    }
+
+    private double orderDetailOutcomes(String outcome) {
+        return registry.get("api.outcomes").tag("endpoint", "OrderDetail").tag("outcome", outcome).counter().count();
+    }
+
 }
@@ -0,0 +1,216 @@
+package com.example.demo.controllers;
+
+import com.example.demo.catalog.ItemCatalog;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements each endpoint prepares, so a lazy association
+ * that starts loading per row (N+1) fails the build.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycount;NON_KEYWORDS=user",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // the counts are global, so keep the outbox dispatcher from polling during a request
+        "outbox.poll-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@WithMockUser
+public class QueryCountTest {
+
+    private static final int ORDERS = 5;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ItemCatalog itemCatalog;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private ThreadPoolTaskExecutor applicationTaskExecutor;
+
+    private String username;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        username = "user-" + UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Item> items = itemRepository.findAll();
+            Cart cart = new Cart();
+            items.forEach(item -> cart.addItem(item, 2));
+            cartRepository.save(cart);
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword("hash");
+            user.setCart(cart);
+            cart.setUser(user);
+            userRepository.save(user);
+            for (int i = 0; i < ORDERS; i++) {
+                orderRepository.save(UserOrder.createFromCart(cart));
+            }
+        });
+        // warm the item catalog so the counts below only cover per-request work
+        mvc.perform(get("/api/item/1")).andExpect(status().isOk());
+    }
+
+    private long statementsFor(Request request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        request.perform().andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void assertAtMost(long max, long actual, String endpoint) {
+        assertTrue(actual <= max, endpoint + " prepared " + actual + " statements, expected at most " + max);
+    }
+
+    @Test
+    public void order_history_loads_orders_and_items_in_one_query() throws Exception {
+        long count = statementsFor(() -> mvc.perform(get("/api/order/history/" + username)));
+        // user lookup + orders joined with items, regardless of the number of orders
+        assertAtMost(2, count, "GET /api/order/history");
+    }
+
+    @Test
+    public void order_history_page_uses_summary_projection() throws Exception {
+        long count = statementsFor(() -> mvc.perform(get("/api/order/history/" + username + "?limit=2")));
+        assertAtMost(2, count, "GET /api/order/history?limit");
+    }
+
+    @Test
+    public void order_detail_loads_order_and_items_in_one_query() throws Exception {
+        Long orderId = orderRepository.findByUser(userRepository.findByUsername(username)).get(0).getId();
+        long count = statementsFor(() -> mvc.perform(get("/api/order/history/" + username + "/" + orderId)));
+        assertAtMost(2, count, "GET /api/order/history/{username}/{orderId}");
+    }
+
+    @Test
+    public void user_lookup_does_not_load_cart() throws Exception {
+        long count = statementsFor(() -> mvc.perform(get("/api/user/" + username)));
+        assertAtMost(1, count, "GET /api/user/{username}");
+    }
+
+    @Test
+    public void add_to_cart_loads_cart_in_one_query() throws Exception {
+        long count = statementsFor(() -> mvc.perform(post("/api/cart/addToCart")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"itemId\":1,\"quantity\":3}")));
+        // user+cart+lines+items, update of the existing line, update of the cart total
+        assertAtMost(3, count, "POST /api/cart/addToCart");
+    }
+
+    @Test
+    public void cart_batch_saves_cart_once() throws Exception {
+        long count = statementsFor(() -> mvc.perform(post("/api/cart/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"operations\":["
+                        + "{\"op\":\"ADD\",\"itemId\":1,\"quantity\":3},"
+                        + "{\"op\":\"SET\",\"itemId\":2,\"quantity\":5},"
+                        + "{\"op\":\"REMOVE\",\"itemId\":1,\"quantity\":1}]}")));
+        // uncached items in one query, user+cart+lines+items, one update per
+        // changed line, update of the cart total
+        assertAtMost(5, count, "POST /api/cart/batch");
+    }
+
+    @Test
+    public void item_search_loads_matches_in_one_query() throws Exception {
+        String prefix = "qc" + UUID.randomUUID().toString().substring(0, 8);
+        List<Item> matches = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Item item = new Item();
+            item.setSku(prefix + "-" + i);
+            item.setName(prefix + " item " + i);
+            item.setPrice(BigDecimal.ONE);
+            item.setDescription("search fixture");
+            matches.add(item);
+        }
+        itemRepository.saveAll(matches);
+        itemCatalog.invalidateAll();
+        try {
+            assertSearchLoadsMatchesInOneQuery(prefix, matches.size());
+        } finally {
+            // the other tests put every item in the cart
+            itemRepository.deleteAll(matches);
+            itemCatalog.invalidateAll();
+        }
+    }
+
+    private void assertSearchLoadsMatchesInOneQuery(String prefix, int matches) throws Exception {
+        // the first search starts the name index rebuild; wait for it so the
+        // counted search is served from the snapshot with a cold item cache
+        long completed = applicationTaskExecutor.getThreadPoolExecutor().getCompletedTaskCount();
+        mvc.perform(get("/api/item/search").param("q", prefix)).andExpect(status().isOk());
+        while (applicationTaskExecutor.getThreadPoolExecutor().getCompletedTaskCount() == completed) {
+            Thread.sleep(10);
+        }
+
+        long count = statementsFor(() -> mvc.perform(get("/api/item/search").param("q", prefix).param("limit", "100"))
+                .andExpect(jsonPath("$.length()").value(matches)));
+        // every uncached match in one query, not one per item
+        assertAtMost(1, count, "GET /api/item/search");
+    }
+
+    @Test
+    public void submit_loads_cart_in_one_query() throws Exception {
+        long count = statementsFor(() -> mvc.perform(post("/api/order/submit/" + username)));
+        // user+cart+lines+items, order insert, batched order line rows, outbox
+        // event insert, batched cart line deletes, cart update, and now and then
+        // a sequence block; the line and outbox sequences can both be due at once
+        assertAtMost(8, count, "POST /api/order/submit");
+    }
+
+    private interface Request {
+        ResultActions perform() throws Exception;
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -12,10 +13,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import com.example.demo.TestUtils;
+import com.example.demo.metrics.AppMetrics;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.security.PasswordHashingLimiter;
+import com.example.demo.security.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.util.Optional;
 
@@ -28,12 +33,19 @@ public class UserControllerTest {
 
     private BCryptPasswordEncoder encoder=mock(BCryptPasswordEncoder.class);
 
+    private PasswordHashingLimiter limiter=new PasswordHashingLimiter(1, 0, new SimpleMeterRegistry());
+
+    private UserDetailsServiceImpl userDetailsService=mock(UserDetailsServiceImpl.class);
+
     @BeforeEach
     public void setUp() {
         userController = new UserController();
         TestUtils.injectObjects(userController, "userRepository", userRepo);
         TestUtils.injectObjects(userController, "cartRepository", cartRepo);
         TestUtils.injectObjects(userController, "bCryptPasswordEncoder", encoder);
+        TestUtils.injectObjects(userController, "passwordHashingLimiter", limiter);
+        TestUtils.injectObjects(userController, "userDetailsService", userDetailsService);
+        TestUtils.injectObjects(userController, "appMetrics", new AppMetrics(new SimpleMeterRegistry()));
 
     }
 
@@ -58,6 +70,23 @@ public class UserControllerTest {
         assertEquals(0, u.getId());
         assertEquals("test",u.getUsername());
         assertEquals("thisIsHashed", u.getPassword());
+        verify(userDetailsService).evict("test");
+    }
+
+    @Test
+    public void create_user_throttled_when_hashing_saturated() {
+        when(encoder.encode("testPassword")).thenReturn("thisIsHashed");
+        CreateUserRequest r = new CreateUserRequest();
+        r.setUsername("test");
+        r.setPassword("testPassword");
+        r.setConfirmPassword("testPassword");
+
+        // hold the only hashing slot while the request runs
+        final ResponseEntity<User> response = limiter.run(() -> userController.createUser(r));
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals(1, limiter.getRejectedCount());
     }
 
     @Test
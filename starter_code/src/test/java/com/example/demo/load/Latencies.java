@@ -0,0 +1,48 @@
+package com.example.demo.load;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one endpoint, in nanoseconds, and a count of failed calls.
+ * Failed calls are not part of the percentiles.
+ */
+public final class Latencies {
+
+    private long[] values = new long[1 << 16];
+    private int count;
+    private int errors;
+
+    public synchronized void record(long nanos, boolean ok) {
+        if (!ok) {
+            errors++;
+            return;
+        }
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+        }
+        values[count++] = nanos;
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    public synchronized int errors() {
+        return errors;
+    }
+
+    public synchronized double errorRate() {
+        int calls = count + errors;
+        return calls == 0 ? 0 : (double) errors / calls;
+    }
+
+    public synchronized double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
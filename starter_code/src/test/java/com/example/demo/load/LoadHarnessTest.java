@@ -0,0 +1,308 @@
+package com.example.demo.load;
+
+import com.example.demo.SareetaApplication;
+import com.example.demo.security.SecurityConstants;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the application on a random local port, seeds it with a
+ * {@link SyntheticDataset} and drives a weighted mix of signup, login, cart,
+ * checkout and order-history calls from concurrent clients over real HTTP.
+ * Each client logs in as a user picked by activity, makes
+ * {@code load.session-actions} calls as that user and then logs in as
+ * another. At the end it prints throughput, latency percentiles and error
+ * rate per endpoint.
+ * <p>
+ * Excluded from the normal build; run it with
+ * {@code mvn test -Dgroups=load -Dsurefire.excludedGroups= -Dtest=LoadHarnessTest}.
+ * {@code -Dload.clients}, {@code -Dload.warmup-seconds}, {@code -Dload.seconds},
+ * {@code -Dload.session-actions} and {@code -Dload.mix} (for example
+ * {@code addToCart=40,removeFromCart=15,submit=5,history=10,signup=1}) shape
+ * the run; {@link SyntheticDataset.Shape#fromSystemProperties()} lists the
+ * dataset options. Add {@code -Dload.args=--spring.threads.virtual.enabled=true}
+ * or other comma-separated application arguments to change the server.
+ */
+@Tag("load")
+public class LoadHarnessTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 50);
+    private static final long WARMUP_SECONDS = Long.getLong("load.warmup-seconds", 10);
+    private static final long MEASURE_SECONDS = Long.getLong("load.seconds", 30);
+    private static final int SESSION_ACTIONS = Integer.getInteger("load.session-actions", 20);
+    private static final String MIX = System.getProperty("load.mix",
+            "signup=1,addToCart=40,removeFromCart=15,submit=5,history=10");
+
+    enum Endpoint {
+        SIGNUP, LOGIN, ADD_TO_CART, REMOVE_FROM_CART, SUBMIT, HISTORY;
+
+        static Endpoint parse(String name) {
+            return switch (name.trim()) {
+                case "signup" -> SIGNUP;
+                case "addToCart" -> ADD_TO_CART;
+                case "removeFromCart" -> REMOVE_FROM_CART;
+                case "submit" -> SUBMIT;
+                case "history" -> HISTORY;
+                default -> throw new IllegalArgumentException("Unknown endpoint in load.mix: " + name);
+            };
+        }
+    }
+
+    @Test
+    public void drive_mixed_workload() throws Exception {
+        Mix mix = Mix.parse(MIX);
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-harness;NON_KEYWORDS=user",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.com.example.demo=WARN"));
+        String extra = System.getProperty("load.args", "");
+        if (!extra.isBlank()) {
+            args.addAll(List.of(extra.split(",")));
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SareetaApplication.class)
+                .run(args.toArray(String[]::new));
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            long seeding = System.nanoTime();
+            SyntheticDataset dataset = SyntheticDataset.seed(context, SyntheticDataset.Shape.fromSystemProperties(), "load");
+            System.out.printf("seeded %s in %d ms%n", dataset,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seeding));
+
+            Map<Endpoint, Latencies> latencies = new EnumMap<>(Endpoint.class);
+            Map<Endpoint, Map<Integer, LongAdder>> failures = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : Endpoint.values()) {
+                latencies.put(endpoint, new Latencies());
+                failures.put(endpoint, new ConcurrentSkipListMap<>());
+            }
+            long measureFrom = System.nanoTime() + Duration.ofSeconds(WARMUP_SECONDS).toNanos();
+            long end = measureFrom + Duration.ofSeconds(MEASURE_SECONDS).toNanos();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient http = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .executor(clients)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                List<Future<?>> running = new ArrayList<>();
+                for (int i = 0; i < CLIENTS; i++) {
+                    Client client = new Client(http, "http://localhost:" + port, dataset, mix, latencies, failures,
+                            measureFrom, end, i, new SplittableRandom(dataset.shape().seed() + i));
+                    running.add(clients.submit(() -> {
+                        client.run();
+                        return null;
+                    }));
+                }
+                for (Future<?> client : running) {
+                    client.get();
+                }
+            }
+
+            print(latencies, failures);
+            assertTrue(latencies.get(Endpoint.LOGIN).count() > 0);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void print(Map<Endpoint, Latencies> latencies, Map<Endpoint, Map<Integer, LongAdder>> failures) {
+        System.out.println();
+        System.out.printf("%d clients, %d s measured after %d s warmup, mix %s%n",
+                CLIENTS, MEASURE_SECONDS, WARMUP_SECONDS, MIX);
+        System.out.printf("%-16s %9s %9s %9s %9s %9s %9s %8s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors");
+        long total = 0;
+        for (Map.Entry<Endpoint, Latencies> entry : latencies.entrySet()) {
+            Latencies endpoint = entry.getValue();
+            total += endpoint.count();
+            System.out.printf("%-16s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7.2f%%%n", entry.getKey(),
+                    endpoint.count(), endpoint.count() / (double) MEASURE_SECONDS,
+                    endpoint.percentileMillis(50), endpoint.percentileMillis(95), endpoint.percentileMillis(99),
+                    endpoint.percentileMillis(100), endpoint.errorRate() * 100);
+        }
+        System.out.printf("%-16s %9d %9.1f%n", "total", total, total / (double) MEASURE_SECONDS);
+        failures.forEach((endpoint, statuses) -> {
+            if (!statuses.isEmpty()) {
+                // status 0 is an I/O error
+                System.out.println("failed " + endpoint + " by status: " + statuses);
+            }
+        });
+    }
+
+    /**
+     * Endpoint weights; an endpoint is picked with probability weight / sum.
+     */
+    private record Mix(Endpoint[] endpoints, int[] cumulative) {
+
+        static Mix parse(String spec) {
+            Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+            for (String part : spec.split(",")) {
+                String[] pair = part.split("=");
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Expected endpoint=weight in load.mix: " + part);
+                }
+                weights.put(Endpoint.parse(pair[0]), Integer.parseInt(pair[1].trim()));
+            }
+            Endpoint[] endpoints = weights.keySet().toArray(Endpoint[]::new);
+            int[] cumulative = new int[endpoints.length];
+            int sum = 0;
+            for (int i = 0; i < endpoints.length; i++) {
+                sum += weights.get(endpoints[i]);
+                cumulative[i] = sum;
+            }
+            if (sum <= 0) {
+                throw new IllegalArgumentException("load.mix has no positive weight");
+            }
+            return new Mix(endpoints, cumulative);
+        }
+
+        Endpoint pick(SplittableRandom random) {
+            int value = random.nextInt(cumulative[cumulative.length - 1]);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (value < cumulative[i]) {
+                    return endpoints[i];
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    private static final class Client {
+
+        private final HttpClient http;
+        private final String base;
+        private final SyntheticDataset dataset;
+        private final Mix mix;
+        private final Map<Endpoint, Latencies> latencies;
+        private final Map<Endpoint, Map<Integer, LongAdder>> failures;
+        private final long measureFrom;
+        private final long end;
+        private final int id;
+        private final SplittableRandom random;
+        private int signups;
+        private String username;
+        private String token;
+
+        Client(HttpClient http, String base, SyntheticDataset dataset, Mix mix, Map<Endpoint, Latencies> latencies,
+                Map<Endpoint, Map<Integer, LongAdder>> failures, long measureFrom, long end, int id,
+                SplittableRandom random) {
+            this.http = http;
+            this.base = base;
+            this.dataset = dataset;
+            this.mix = mix;
+            this.latencies = latencies;
+            this.failures = failures;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.id = id;
+            this.random = random;
+        }
+
+        void run() throws InterruptedException {
+            while (System.nanoTime() < end) {
+                if (!login(dataset.sampleUser(random))) {
+                    continue;
+                }
+                for (int i = 0; i < SESSION_ACTIONS && System.nanoTime() < end; i++) {
+                    act(mix.pick(random));
+                }
+            }
+        }
+
+        private boolean login(String user) throws InterruptedException {
+            HttpResponse<Void> response = send(Endpoint.LOGIN, post("/login",
+                    "{\"username\":\"" + user + "\",\"password\":\"" + SyntheticDataset.PASSWORD + "\"}"));
+            if (response == null || response.statusCode() != 200) {
+                return false;
+            }
+            username = user;
+            token = response.headers().firstValue(SecurityConstants.HEADER_STRING).orElse(null);
+            return token != null;
+        }
+
+        private void act(Endpoint endpoint) throws InterruptedException {
+            switch (endpoint) {
+                case SIGNUP -> {
+                    String user = "signup-" + id + "-" + signups++;
+                    send(endpoint, post(SecurityConstants.SIGN_UP_URL, "{\"username\":\"" + user
+                            + "\",\"password\":\"" + SyntheticDataset.PASSWORD
+                            + "\",\"confirmPassword\":\"" + SyntheticDataset.PASSWORD + "\"}"));
+                }
+                case ADD_TO_CART, REMOVE_FROM_CART -> send(endpoint, authorized(post(
+                        endpoint == Endpoint.ADD_TO_CART ? "/api/cart/addToCart" : "/api/cart/removeFromCart",
+                        "{\"username\":\"" + username + "\",\"itemId\":" + dataset.sampleItem(random)
+                                + ",\"quantity\":" + (1 + random.nextInt(3)) + "}")));
+                case SUBMIT -> send(endpoint, authorized(HttpRequest.newBuilder(uri("/api/order/submit/" + username))
+                        .POST(HttpRequest.BodyPublishers.noBody())));
+                case HISTORY -> send(endpoint, authorized(HttpRequest.newBuilder(uri("/api/order/history/" + username)).GET()));
+                case LOGIN -> login(dataset.sampleUser(random));
+            }
+        }
+
+        private HttpRequest.Builder post(String path, String json) {
+            return HttpRequest.newBuilder(uri(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json));
+        }
+
+        private HttpRequest.Builder authorized(HttpRequest.Builder request) {
+            return request.header(SecurityConstants.HEADER_STRING, token);
+        }
+
+        private URI uri(String path) {
+            return URI.create(base + path);
+        }
+
+        /**
+         * Sends the request and records it if it started and finished inside
+         * the measured window. A throttled request waits out its Retry-After
+         * before returning, as a well-behaved client would. Returns
+         * {@code null} on an I/O error.
+         */
+        private HttpResponse<Void> send(Endpoint endpoint, HttpRequest.Builder request) throws InterruptedException {
+            long started = System.nanoTime();
+            HttpResponse<Void> response;
+            try {
+                response = http.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                response = null;
+            }
+            long finished = System.nanoTime();
+            int status = response == null ? 0 : response.statusCode();
+            if (started >= measureFrom && finished <= end) {
+                latencies.get(endpoint).record(finished - started, status == 200);
+                if (status != 200) {
+                    failures.get(endpoint).computeIfAbsent(status, key -> new LongAdder()).increment();
+                }
+            }
+            if (status == 429) {
+                long seconds = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+            }
+            return response;
+        }
+    }
+}
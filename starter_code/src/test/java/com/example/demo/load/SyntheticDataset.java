@@ -0,0 +1,281 @@
+package com.example.demo.load;
+
+import com.example.demo.cart.CartPricing;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.random.RandomGenerator;
+
+/**
+ * Users, items, carts and order histories written straight into a running
+ * application. Activity is skewed the way shop traffic usually is: item
+ * popularity and the number of orders per user both fall off with rank as a
+ * Zipf distribution, so a few items and users account for most carts and
+ * orders. The same {@link Shape} and seed always produce the same data.
+ * <p>
+ * Every user's password is {@link #PASSWORD}. It is hashed once and the hash
+ * shared, since one BCrypt hash per user would dominate seeding time.
+ */
+public final class SyntheticDataset {
+
+    public static final String PASSWORD = "load-password";
+
+    private static final int CHUNK = 500;
+    private static final int MAX_LINES = 5;
+    private static final int MAX_QUANTITY = 3;
+    private static final Duration HISTORY = Duration.ofDays(365);
+
+    /**
+     * @param users         users to create
+     * @param items         catalog items to create
+     * @param maxOrders     orders of the most active user; the user at rank
+     *                      {@code r} gets about {@code maxOrders / r^skew}
+     * @param cartFraction  share of users who start with a non-empty cart
+     * @param skew          Zipf exponent for item popularity and user activity
+     * @param seed          random seed
+     */
+    public record Shape(int users, int items, int maxOrders, double cartFraction, double skew, long seed) {
+
+        /**
+         * Reads {@code -Dload.users}, {@code -Dload.items},
+         * {@code -Dload.max-orders}, {@code -Dload.cart-fraction},
+         * {@code -Dload.skew} and {@code -Dload.seed}.
+         */
+        public static Shape fromSystemProperties() {
+            return new Shape(
+                    Integer.getInteger("load.users", 1_000),
+                    Integer.getInteger("load.items", 2_000),
+                    Integer.getInteger("load.max-orders", 200),
+                    Double.parseDouble(System.getProperty("load.cart-fraction", "0.3")),
+                    Double.parseDouble(System.getProperty("load.skew", "1.1")),
+                    Long.getLong("load.seed", 42));
+        }
+    }
+
+    private final Shape shape;
+    private final String[] usernames;
+    private final long[] itemIds;
+    private final Zipf userActivity;
+    private final Zipf itemPopularity;
+    private long carts;
+    private long orders;
+
+    private SyntheticDataset(Shape shape, String prefix) {
+        this.shape = shape;
+        this.usernames = new String[shape.users()];
+        for (int i = 0; i < usernames.length; i++) {
+            usernames[i] = prefix + "-user-" + i;
+        }
+        this.itemIds = new long[shape.items()];
+        this.userActivity = new Zipf(shape.users(), shape.skew());
+        this.itemPopularity = new Zipf(shape.items(), shape.skew());
+    }
+
+    /**
+     * Writes the dataset in transactions of a few hundred rows. Usernames and
+     * SKUs start with {@code prefix}, so several datasets can share a database.
+     */
+    public static SyntheticDataset seed(ApplicationContext context, Shape shape, String prefix) {
+        if (shape.users() < 1 || shape.items() < 1) {
+            throw new IllegalArgumentException("A dataset needs at least one user and one item");
+        }
+        SyntheticDataset dataset = new SyntheticDataset(shape, prefix);
+        dataset.write(context, prefix);
+        return dataset;
+    }
+
+    private void write(ApplicationContext context, String prefix) {
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        OrderRepository orderRepository = context.getBean(OrderRepository.class);
+        String passwordHash = context.getBean(BCryptPasswordEncoder.class).encode(PASSWORD);
+        Random random = new Random(shape.seed());
+
+        for (int from = 0; from < itemIds.length; from += CHUNK) {
+            int start = from;
+            int end = Math.min(from + CHUNK, itemIds.length);
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Item> chunk = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    Item item = new Item();
+                    item.setSku(prefix + "-" + i);
+                    item.setName(prefix + " item " + i);
+                    item.setPrice(BigDecimal.valueOf(99 + random.nextInt(20_000), CartPricing.SCALE));
+                    item.setDescription("Synthetic load-test item");
+                    chunk.add(item);
+                }
+                itemRepository.saveAll(chunk);
+                for (int i = start; i < end; i++) {
+                    itemIds[i] = chunk.get(i - start).getId();
+                }
+            });
+        }
+
+        Instant now = Instant.now();
+        for (int from = 0; from < usernames.length; from += CHUNK) {
+            int start = from;
+            int end = Math.min(from + CHUNK, usernames.length);
+            // draw everything up front, so one query loads every item the chunk uses
+            int[][] cartLines = new int[end - start][];
+            int[][][] orderLines = new int[end - start][][];
+            Set<Long> used = new HashSet<>();
+            for (int i = start; i < end; i++) {
+                cartLines[i - start] = random.nextDouble() < shape.cartFraction() ? lines(random, used) : new int[0];
+                int count = ordersFor(i, random);
+                orderLines[i - start] = new int[count][];
+                for (int o = 0; o < count; o++) {
+                    orderLines[i - start][o] = lines(random, used);
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Item> items = new HashMap<>();
+                itemRepository.findAllById(used).forEach(item -> items.put(item.getId(), item));
+                List<User> users = new ArrayList<>(end - start);
+                List<UserOrder> userOrders = new ArrayList<>();
+                for (int i = start; i < end; i++) {
+                    User user = new User();
+                    user.setUsername(usernames[i]);
+                    user.setPassword(passwordHash);
+                    Cart cart = new Cart();
+                    cart.setUser(user);
+                    user.setCart(cart);
+                    int[] lines = cartLines[i - start];
+                    for (int l = 0; l < lines.length; l += 2) {
+                        cart.addItem(items.get(itemIds[lines[l]]), lines[l + 1]);
+                    }
+                    carts += lines.length > 0 ? 1 : 0;
+                    users.add(user);
+                    for (int[] order : orderLines[i - start]) {
+                        userOrders.add(order(user, order, items, now.minus(randomAge(random))));
+                    }
+                }
+                userRepository.saveAll(users);
+                orderRepository.saveAll(userOrders);
+                orders += userOrders.size();
+            });
+        }
+    }
+
+    /**
+     * Draws up to {@value #MAX_LINES} distinct popular items, as pairs of item
+     * index and quantity, and adds their ids to {@code used}.
+     */
+    private int[] lines(RandomGenerator random, Set<Long> used) {
+        int count = 1 + random.nextInt(MAX_LINES);
+        int[] lines = new int[count * 2];
+        int filled = 0;
+        for (int attempt = 0; attempt < count * 4 && filled < count; attempt++) {
+            int item = itemPopularity.sample(random);
+            boolean duplicate = false;
+            for (int l = 0; l < filled * 2; l += 2) {
+                duplicate |= lines[l] == item;
+            }
+            if (!duplicate) {
+                lines[filled * 2] = item;
+                lines[filled * 2 + 1] = 1 + random.nextInt(MAX_QUANTITY);
+                used.add(itemIds[item]);
+                filled++;
+            }
+        }
+        return Arrays.copyOf(lines, filled * 2);
+    }
+
+    private int ordersFor(int rank, RandomGenerator random) {
+        double expected = shape.maxOrders() / Math.pow(rank + 1, shape.skew());
+        int whole = (int) expected;
+        return whole + (random.nextDouble() < expected - whole ? 1 : 0);
+    }
+
+    private static Duration randomAge(RandomGenerator random) {
+        return Duration.ofSeconds(random.nextLong(HISTORY.toSeconds()));
+    }
+
+    private UserOrder order(User user, int[] lines, Map<Long, Item> items, Instant createdAt) {
+        List<Item> orderItems = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int l = 0; l < lines.length; l += 2) {
+            Item item = items.get(itemIds[lines[l]]);
+            for (int q = 0; q < lines[l + 1]; q++) {
+                orderItems.add(item);
+            }
+            total = total.add(CartPricing.lineTotal(item.getPrice(), lines[l + 1]));
+        }
+        UserOrder order = new UserOrder();
+        order.setUser(user);
+        order.setItems(orderItems);
+        order.setTotal(CartPricing.money(total));
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+
+    /**
+     * A user picked by activity: low ranks are picked far more often.
+     */
+    public String sampleUser(RandomGenerator random) {
+        return usernames[userActivity.sample(random)];
+    }
+
+    /**
+     * An item id picked by popularity.
+     */
+    public long sampleItem(RandomGenerator random) {
+        return itemIds[itemPopularity.sample(random)];
+    }
+
+    public Shape shape() {
+        return shape;
+    }
+
+    @Override
+    public String toString() {
+        return shape.users() + " users (" + carts + " with a cart), " + shape.items() + " items, "
+                + orders + " orders, skew " + shape.skew();
+    }
+
+    /**
+     * Samples ranks {@code 0..n-1} with probability proportional to
+     * {@code 1 / (rank + 1)^skew}, by binary search over the cumulative
+     * distribution.
+     */
+    static final class Zipf {
+
+        private final double[] cumulative;
+
+        Zipf(int n, double skew) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1 / Math.pow(rank + 1, skew);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        int sample(RandomGenerator random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+        }
+    }
+}
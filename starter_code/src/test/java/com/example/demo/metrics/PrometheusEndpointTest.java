@@ -0,0 +1,98 @@
+package com.example.demo.metrics;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.anonymous;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:prometheus;NON_KEYWORDS=user")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@WithMockUser
+public class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String createUser() {
+        String username = "user-" + UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword("hash");
+            Cart cart = new Cart();
+            cart.setUser(user);
+            user.setCart(cart);
+            userRepository.save(user);
+        });
+        return username;
+    }
+
+    private String scrape() throws Exception {
+        return mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    // ==================== prometheus tests ====================
+
+    @Test
+    public void cart_and_order_calls_are_published() throws Exception {
+        String username = createUser();
+        mvc.perform(post("/api/cart/addToCart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"itemId\":1,\"quantity\":2}"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/api/order/submit/" + username)).andExpect(status().isOk());
+
+        String body = scrape();
+
+        assertTrue(body.contains("api_outcomes_total{endpoint=\"AddToCart\",outcome=\"success\"}"), body);
+        assertTrue(body.contains("api_outcomes_total{endpoint=\"Order\",outcome=\"conflict\"} 0.0"), body);
+        assertTrue(body.contains("cart_lines_bucket"), body);
+        assertTrue(body.contains("order_total_dollars_bucket"), body);
+        assertTrue(body.contains("order_items_count"), body);
+        assertTrue(body.contains("http_server_requests_statements_bucket{uri=\"/api/cart/addToCart\""), body);
+        assertTrue(body.contains("http_server_requests_seconds_bucket"), body);
+    }
+
+    @Test
+    public void security_cache_and_hibernate_meters_are_published() throws Exception {
+        String body = scrape();
+
+        assertTrue(body.contains("security_jwt_verify_seconds_count{result=\"cached\"}"), body);
+        assertTrue(body.contains("security_password_hashing_seconds_count"), body);
+        assertTrue(body.contains("security_password_throttled_total"), body);
+        assertTrue(body.contains("cache_gets_total{cache=\"security.verified-tokens\",result=\"hit\"}"), body);
+        assertTrue(body.contains("hibernate_statements_total"), body);
+        assertTrue(body.contains("hibernate_query_executions_total"), body);
+    }
+
+    @Test
+    public void health_is_public_but_prometheus_is_not() throws Exception {
+        mvc.perform(get("/actuator/health").with(anonymous())).andExpect(status().isOk());
+        mvc.perform(get("/actuator/prometheus").with(anonymous())).andExpect(status().isForbidden());
+    }
+}
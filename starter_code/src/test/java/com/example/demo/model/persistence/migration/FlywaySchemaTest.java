@@ -0,0 +1,56 @@
+package com.example.demo.model.persistence.migration;
+
+import com.example.demo.controllers.StatsController;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.PoolStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the prod profile against a fresh database: the migrations must build
+ * a schema that Hibernate's validation accepts.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:flyway;NON_KEYWORDS=user")
+@ActiveProfiles("prod")
+public class FlywaySchemaTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private StatsController statsController;
+
+    @Test
+    public void migrations_build_validated_schema_with_seed_items() {
+        assertEquals(4, jdbcTemplate.queryForObject(
+                "select count(*) from \"flyway_schema_history\" where \"success\" and \"version\" is not null", Integer.class));
+        assertEquals("Round Widget", itemRepository.findById(1L).get().getName());
+
+        Item item = new Item();
+        item.setName("Triangle Widget");
+        item.setPrice(new BigDecimal("3.99"));
+        item.setDescription("A widget that is triangular");
+        assertTrue(itemRepository.save(item).getId() > 2);
+    }
+
+    @Test
+    public void pool_is_sized_to_request_threads() {
+        PoolStats pool = statsController.getPoolStats().getBody();
+
+        assertEquals("app-pool", pool.pool());
+        assertEquals(50, pool.max());
+        assertTrue(pool.acquired() > 0);
+    }
+}
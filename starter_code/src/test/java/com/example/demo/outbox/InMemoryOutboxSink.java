@@ -0,0 +1,43 @@
+package com.example.demo.outbox;
+
+import com.example.demo.model.persistence.OutboxEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps every event it is given. {@link #failNext} makes the next deliveries
+ * throw, to exercise retries.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final String name;
+    private final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    public InMemoryOutboxSink(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void deliver(OutboxEvent event) {
+        if (failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+            throw new IllegalStateException(name + " is down");
+        }
+        events.add(event);
+    }
+
+    public void failNext(int deliveries) {
+        failures.set(deliveries);
+    }
+
+    public List<OutboxEvent> events() {
+        return events;
+    }
+}
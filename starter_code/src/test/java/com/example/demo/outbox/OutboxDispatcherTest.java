@@ -0,0 +1,194 @@
+package com.example.demo.outbox;
+
+import com.example.demo.model.persistence.OutboxEvent;
+import com.example.demo.model.persistence.repositories.OutboxEventRepository;
+import com.example.demo.model.responses.OutboxBacklog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OutboxDispatcherTest {
+
+    private final TestClock clock = new TestClock(Instant.parse("2024-01-01T00:00:00Z"));
+    private final List<OutboxEvent> table = new ArrayList<>();
+    private final OutboxEventRepository outboxRepo = mock(OutboxEventRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InMemoryOutboxSink first = new InMemoryOutboxSink("first");
+    private final InMemoryOutboxSink second = new InMemoryOutboxSink("second");
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        when(outboxRepo.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(Instant.class), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    Instant now = invocation.getArgument(0);
+                    Limit limit = invocation.getArgument(1);
+                    return table.stream()
+                            .filter(event -> !event.getNextAttemptAt().isAfter(now))
+                            .sorted(Comparator.comparing(OutboxEvent::getId))
+                            .limit(limit.max())
+                            .toList();
+                });
+        doAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            table.removeIf(event -> ids.contains(event.getId()));
+            return null;
+        }).when(outboxRepo).deleteAllByIdInBatch(any());
+        when(outboxRepo.backlog()).thenAnswer(invocation -> new OutboxBacklog(table.size(),
+                table.stream().map(OutboxEvent::getCreatedAt).min(Comparator.naturalOrder()).orElse(null)));
+
+        dispatcher = new OutboxDispatcher(outboxRepo, List.of(first, second), mock(PlatformTransactionManager.class),
+                registry, 2, 1000, 8000, clock);
+    }
+
+    private OutboxEvent add(long id) {
+        OutboxEvent event = OutboxEvent.of(OrderSubmitted.TYPE, id, "{}", clock.instant());
+        event.setId(id);
+        table.add(event);
+        return event;
+    }
+
+    // ==================== dispatch tests ====================
+
+    @Test
+    public void poll_drains_every_due_event_in_batches() {
+        add(1);
+        add(2);
+        add(3);
+
+        dispatcher.poll();
+
+        assertEquals(List.of(1L, 2L, 3L), first.events().stream().map(OutboxEvent::getId).toList());
+        assertEquals(3, second.events().size());
+        assertTrue(table.isEmpty());
+        assertEquals(3, dispatcher.stats().delivered());
+        assertEquals(0, dispatcher.stats().pending());
+    }
+
+    @Test
+    public void failed_event_is_kept_and_retried_after_backoff() {
+        OutboxEvent event = add(1);
+        add(2);
+        second.failNext(1);
+
+        dispatcher.poll();
+
+        assertEquals(1, table.size());
+        assertEquals(1, event.getAttempts());
+        assertEquals(clock.instant().plusSeconds(1), event.getNextAttemptAt());
+        assertTrue(event.getLastError().startsWith("second: "));
+        assertEquals(1, dispatcher.stats().failedAttempts());
+        assertEquals(1, registry.get("outbox.delivery").tag("sink", "second").tag("result", "failure").timer().count());
+
+        // not due yet
+        assertEquals(0, dispatcher.dispatch());
+
+        clock.advance(Duration.ofSeconds(1));
+        dispatcher.poll();
+
+        assertTrue(table.isEmpty());
+        // at least once: the first sink saw event 1 on both attempts
+        assertEquals(List.of(1L, 2L, 1L), first.events().stream().map(OutboxEvent::getId).toList());
+        assertEquals(List.of(2L, 1L), second.events().stream().map(OutboxEvent::getId).toList());
+    }
+
+    @Test
+    public void sink_only_receives_types_it_accepts() {
+        OutboxSink orders = new InMemoryOutboxSink("orders") {
+            @Override
+            public boolean accepts(String type) {
+                return type.equals(OrderSubmitted.TYPE);
+            }
+        };
+        dispatcher = new OutboxDispatcher(outboxRepo, List.of(orders, first), mock(PlatformTransactionManager.class),
+                registry, 2, 1000, 8000, clock);
+        add(1);
+        OutboxEvent other = add(2);
+        other.setType("user.created");
+
+        dispatcher.poll();
+
+        assertEquals(1, ((InMemoryOutboxSink) orders).events().size());
+        assertEquals(2, first.events().size());
+    }
+
+    @Test
+    public void backoff_doubles_up_to_max() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(2), dispatcher.backoff(2));
+        assertEquals(Duration.ofSeconds(4), dispatcher.backoff(3));
+        assertEquals(Duration.ofSeconds(8), dispatcher.backoff(4));
+        assertEquals(Duration.ofSeconds(8), dispatcher.backoff(100));
+    }
+
+    // ==================== lag tests ====================
+
+    @Test
+    public void lag_is_age_of_oldest_undelivered_event() {
+        add(1);
+        first.failNext(1);
+        clock.advance(Duration.ofSeconds(30));
+
+        dispatcher.poll();
+
+        assertEquals(1, dispatcher.stats().pending());
+        assertEquals(30.0, dispatcher.stats().lagSeconds());
+        assertEquals(30.0, registry.get("outbox.lag").gauge().value());
+        assertEquals(1.0, registry.get("outbox.pending").gauge().value());
+    }
+
+    @Test
+    public void lag_is_zero_when_outbox_is_empty() {
+        dispatcher.poll();
+
+        assertEquals(0.0, dispatcher.stats().lagSeconds());
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo.outbox;
+
+import com.example.demo.checkout.CheckoutService;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.OutboxEvent;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.OutboxEventRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks out a real cart and drains the outbox into an in-memory and a file
+ * sink. The schedule is pushed out of the way, so only the test dispatches.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;NON_KEYWORDS=user",
+        "outbox.poll-interval-ms=3600000"
+})
+public class OutboxIntegrationTest {
+
+    private static Path file;
+
+    @DynamicPropertySource
+    static void fileSink(DynamicPropertyRegistry registry) throws IOException {
+        file = Files.createTempFile("outbox", ".ndjson");
+        file.toFile().deleteOnExit();
+        registry.add("outbox.file-sink.path", file::toString);
+    }
+
+    @TestConfiguration
+    static class Sinks {
+
+        @Bean
+        InMemoryOutboxSink memorySink() {
+            return new InMemoryOutboxSink("memory");
+        }
+    }
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private Outbox outbox;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private InMemoryOutboxSink memorySink;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        outboxDispatcher.poll();
+        memorySink.events().clear();
+        Files.writeString(file, "");
+    }
+
+    private String userWithCart() {
+        String username = "user-" + UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword("hash");
+            Cart cart = new Cart();
+            cart.setUser(user);
+            cart.addItem(itemRepository.findById(1L).get(), 2);
+            user.setCart(cart);
+            userRepository.save(user);
+        });
+        return username;
+    }
+
+    @Test
+    public void submitted_order_reaches_every_sink() throws IOException {
+        String username = userWithCart();
+
+        UserOrder order = checkoutService.submit(username, null);
+        assertEquals(1, outboxRepository.count());
+        assertEquals(0, memorySink.events().size());
+
+        outboxDispatcher.poll();
+
+        assertEquals(0, outboxRepository.count());
+        List<OutboxEvent> events = memorySink.events();
+        assertEquals(1, events.size());
+        assertEquals(OrderSubmitted.TYPE, events.get(0).getType());
+        assertEquals(order.getId(), events.get(0).getAggregateId());
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        JsonNode line = objectMapper.readTree(lines.get(0));
+        assertEquals(order.getId().longValue(), line.get("aggregateId").asLong());
+        assertEquals(username, line.get("payload").get("username").asText());
+        assertEquals(2, line.get("payload").get("items").asInt());
+    }
+
+    @Test
+    public void event_is_retried_until_sink_accepts_it() {
+        checkoutService.submit(userWithCart(), null);
+        memorySink.failNext(1);
+
+        outboxDispatcher.poll();
+
+        OutboxEvent pending = outboxRepository.findAll().get(0);
+        assertEquals(1, pending.getAttempts());
+        assertEquals(1, outboxDispatcher.stats().pending());
+
+        pending.setNextAttemptAt(pending.getCreatedAt());
+        outboxRepository.save(pending);
+        outboxDispatcher.poll();
+
+        assertEquals(0, outboxRepository.count());
+        assertEquals(1, memorySink.events().size());
+    }
+
+    @Test
+    public void event_rolls_back_with_its_transaction() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outbox.add(OrderSubmitted.TYPE, 1L, "rolled back");
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    public void event_cannot_be_written_outside_transaction() {
+        assertThrows(IllegalTransactionStateException.class, () -> outbox.add(OrderSubmitted.TYPE, 1L, "orphan"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JWTAuthenticationFilterTest {
+
+    private final AuthenticationManager authManager = mock(AuthenticationManager.class);
+    private final PasswordHashingLimiter limiter = new PasswordHashingLimiter(1, 0, new SimpleMeterRegistry());
+    private final JWTAuthenticationFilter filter = new JWTAuthenticationFilter(authManager, limiter, new ObjectMapper());
+
+    private MockHttpServletRequest loginRequest() {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", "/login");
+        req.setContentType("application/json");
+        req.setContent("{\"username\":\"testUser\",\"password\":\"testPassword\"}".getBytes());
+        return req;
+    }
+
+    @Test
+    public void authenticates_parsed_credentials() {
+        Authentication expected = new UsernamePasswordAuthenticationToken("testUser", null, Collections.emptyList());
+        when(authManager.authenticate(any())).thenReturn(expected);
+
+        Authentication result = filter.attemptAuthentication(loginRequest(), new MockHttpServletResponse());
+
+        assertSame(expected, result);
+    }
+
+    @Test
+    public void ignores_unknown_login_fields() {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", "/login");
+        req.setContent("{\"id\":7,\"username\":\"testUser\",\"password\":\"testPassword\"}".getBytes());
+        when(authManager.authenticate(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Authentication result = filter.attemptAuthentication(req, new MockHttpServletResponse());
+
+        assertEquals("testUser", result.getPrincipal());
+        assertEquals("testPassword", result.getCredentials());
+    }
+
+    @Test
+    public void rejects_with_429_when_hashing_saturated() throws Exception {
+        MockHttpServletRequest req = loginRequest();
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        AuthenticationException failure = limiter.run(() -> assertThrows(PasswordHashingThrottledException.class,
+                () -> filter.attemptAuthentication(req, res)));
+        filter.unsuccessfulAuthentication(req, res, failure);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), res.getStatus());
+        assertEquals("1", res.getHeader("Retry-After"));
+        verify(authManager, never()).authenticate(any());
+    }
+}
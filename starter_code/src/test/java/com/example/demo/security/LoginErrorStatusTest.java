@@ -0,0 +1,85 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Login failures through a real Tomcat. {@code sendError} makes the container
+ * dispatch to {@code /error}, which the security chain has to let through, or
+ * every 401 and 429 reaches the client as 403. MockMvc does not perform that
+ * dispatch, so only a running server shows it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:login-errors;NON_KEYWORDS=user",
+        "security.login.max-concurrent-hashes=1",
+        "security.login.acquire-timeout-ms=1"})
+public class LoginErrorStatusTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PasswordHashingLimiter passwordHashingLimiter;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    private HttpResponse<String> login(String username, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // ==================== login error tests ====================
+
+    @Test
+    public void bad_credentials_are_unauthorized() throws Exception {
+        HttpResponse<String> response = login("nobody", "wrong-password");
+
+        assertEquals(401, response.statusCode());
+    }
+
+    @Test
+    public void saturated_hashing_is_too_many_requests() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> passwordHashingLimiter.run(() -> {
+                holding.countDown();
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            HttpResponse<String> response = login("nobody", "wrong-password");
+
+            assertEquals(429, response.statusCode());
+            assertEquals("1", response.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
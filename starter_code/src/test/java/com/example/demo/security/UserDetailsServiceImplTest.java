@@ -0,0 +1,127 @@
+package com.example.demo.security;
+
+import com.example.demo.TestUtils;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+
+public class UserDetailsServiceImplTest {
+
+    private UserDetailsServiceImpl userDetailsService;
+    private UserRepository userRepo = mock(UserRepository.class);
+
+    @BeforeEach
+    public void setUp() {
+        userDetailsService = new UserDetailsServiceImpl(100, 60);
+        TestUtils.injectObjects(userDetailsService, "userRepository", userRepo);
+    }
+
+    private User createTestUser(String passwordHash) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("testUser");
+        user.setPassword(passwordHash);
+        return user;
+    }
+
+    private DaoAuthenticationProvider provider(BCryptPasswordEncoder encoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(encoder);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        return provider;
+    }
+
+    @Test
+    public void load_user_not_found() {
+        when(userRepo.findByUsername("nonExistentUser")).thenReturn(null);
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nonExistentUser"));
+    }
+
+    @Test
+    public void repeated_loads_hit_repository_once() {
+        when(userRepo.findByUsername("testUser")).thenReturn(createTestUser("hash"));
+
+        userDetailsService.loadUserByUsername("testUser");
+        UserDetails details = userDetailsService.loadUserByUsername("testUser");
+
+        assertEquals("hash", details.getPassword());
+        verify(userRepo, times(1)).findByUsername("testUser");
+        assertEquals(1, userDetailsService.stats().hits());
+    }
+
+    @Test
+    public void erasing_returned_credentials_does_not_touch_cache() {
+        when(userRepo.findByUsername("testUser")).thenReturn(createTestUser("hash"));
+
+        ((CredentialsContainer) userDetailsService.loadUserByUsername("testUser")).eraseCredentials();
+
+        assertEquals("hash", userDetailsService.loadUserByUsername("testUser").getPassword());
+    }
+
+    @Test
+    public void evict_forces_reload() {
+        when(userRepo.findByUsername("testUser")).thenReturn(createTestUser("hash"));
+
+        userDetailsService.loadUserByUsername("testUser");
+        userDetailsService.evict("testUser");
+        userDetailsService.loadUserByUsername("testUser");
+
+        verify(userRepo, times(2)).findByUsername("testUser");
+    }
+
+    @Test
+    public void unknown_user_is_not_cached() {
+        when(userRepo.findByUsername("newUser")).thenReturn(null);
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("newUser"));
+
+        User created = createTestUser("hash");
+        created.setUsername("newUser");
+        when(userRepo.findByUsername("newUser")).thenReturn(created);
+
+        assertEquals("newUser", userDetailsService.loadUserByUsername("newUser").getUsername());
+    }
+
+    @Test
+    public void login_rehashes_password_made_with_lower_cost() {
+        User user = createTestUser(new BCryptPasswordEncoder(4).encode("testPassword"));
+        when(userRepo.findByUsername("testUser")).thenReturn(user);
+
+        provider(new BCryptPasswordEncoder(5))
+                .authenticate(new UsernamePasswordAuthenticationToken("testUser", "testPassword"));
+
+        assertTrue(user.getPassword().startsWith("$2a$05$"));
+        assertTrue(new BCryptPasswordEncoder(5).matches("testPassword", user.getPassword()));
+        verify(userRepo).save(user);
+    }
+
+    @Test
+    public void login_keeps_password_made_with_current_cost() {
+        String hash = new BCryptPasswordEncoder(4).encode("testPassword");
+        User user = createTestUser(hash);
+        when(userRepo.findByUsername("testUser")).thenReturn(user);
+
+        provider(new BCryptPasswordEncoder(4))
+                .authenticate(new UsernamePasswordAuthenticationToken("testUser", "testPassword"));
+
+        assertEquals(hash, user.getPassword());
+        verify(userRepo, never()).save(any());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class VerifiedTokenCacheTest {
+
+    private final AtomicLong now = new AtomicLong(System.currentTimeMillis());
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100, 300, now::get, registry);
+
+    private String token(String subject, long expiresAtMillis) {
+        return JWT.create()
+                .withSubject(subject)
+                .withExpiresAt(new Date(expiresAtMillis))
+                .sign(HMAC512(SecurityConstants.SECRET.getBytes()));
+    }
+
+    @Test
+    public void repeated_token_is_served_from_cache() {
+        String token = token("testUser", now.get() + 60_000);
+
+        assertEquals("testUser", cache.verify(token));
+        assertEquals("testUser", cache.verify(token));
+        assertEquals("testUser", cache.verify(token));
+
+        assertEquals(2, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    public void cached_entry_does_not_outlive_token_expiry() {
+        String token = token("testUser", now.get() + 60_000);
+        cache.verify(token);
+
+        now.addAndGet(60_000);
+        cache.verify(token);
+
+        assertEquals(0, cache.stats().hits());
+        assertEquals(2, cache.stats().misses());
+    }
+
+    @Test
+    public void tampered_token_is_rejected() {
+        String token = token("testUser", now.get() + 60_000);
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertThrows(JWTVerificationException.class, () -> cache.verify(tampered));
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    public void expired_token_is_rejected() {
+        String token = token("testUser", System.currentTimeMillis() - 1_000);
+
+        assertThrows(JWTVerificationException.class, () -> cache.verify(token));
+    }
+
+    @Test
+    public void verifications_are_timed_by_result() {
+        String token = token("testUser", now.get() + 60_000);
+        cache.verify(token);
+        cache.verify(token);
+        assertThrows(JWTVerificationException.class, () -> cache.verify(token + "x"));
+
+        assertEquals(1, registry.get("security.jwt.verify").tag("result", "verified").timer().count());
+        assertEquals(1, registry.get("security.jwt.verify").tag("result", "cached").timer().count());
+        assertEquals(1, registry.get("security.jwt.verify").tag("result", "invalid").timer().count());
+    }
+}
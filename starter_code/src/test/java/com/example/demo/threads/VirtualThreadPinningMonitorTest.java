@@ -0,0 +1,42 @@
+package com.example.demo.threads;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VirtualThreadPinningMonitorTest {
+
+    private final Object monitor = new Object();
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized (monitor) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Test
+    public void reports_virtual_thread_parked_inside_synchronized() throws Exception {
+        try (VirtualThreadPinningMonitor pinningMonitor = new VirtualThreadPinningMonitor(10)) {
+            Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+
+            // the recording stream delivers events in batches, about once a second
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            PinningStats stats = pinningMonitor.stats();
+            while (stats.events() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+                stats = pinningMonitor.stats();
+            }
+
+            assertTrue(stats.events() >= 1);
+            assertTrue(stats.pinnedMillis() >= 40);
+            String site = stats.sites().keySet().iterator().next();
+            assertTrue(site.startsWith(VirtualThreadPinningMonitorTest.class.getName() + ".sleepWhileHoldingMonitor"), site);
+        }
+    }
+}
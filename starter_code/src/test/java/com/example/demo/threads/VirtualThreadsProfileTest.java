@@ -0,0 +1,49 @@
+package com.example.demo.threads;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The virtual profile moves background work, not only requests, onto virtual
+ * threads.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:virtual;NON_KEYWORDS=user")
+@ActiveProfiles("virtual")
+public class VirtualThreadsProfileTest {
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor applicationTaskExecutor;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Test
+    public void application_task_executor_runs_on_virtual_threads() throws Exception {
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+
+        applicationTaskExecutor.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+
+        assertTrue(virtual.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void scheduled_tasks_run_on_virtual_threads() throws Exception {
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+
+        taskScheduler.schedule(() -> virtual.complete(Thread.currentThread().isVirtual()), Instant.now());
+
+        assertTrue(virtual.get(5, TimeUnit.SECONDS));
+    }
+}